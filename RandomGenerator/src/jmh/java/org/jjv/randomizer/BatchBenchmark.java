@@ -0,0 +1,90 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares randomizing many small Lists one call at a time against randomizing them in a single
+ * batch, with and without an ExecutorService.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+
+    @Param({ "10000" })
+    public int lists;
+
+    @Param({ "10", "50" })
+    public int listSize;
+
+    private List<BatchRequest<String>> requests;
+    private RandomGenerator<String> randomGenerator;
+    private ExecutorService executorService;
+
+    @Setup
+    public void setUp() {
+        requests = new ArrayList<BatchRequest<String>>(lists);
+        for (int i = 0; i < lists; i++) {
+            List<String> list = new ArrayList<String>(listSize);
+            for (int j = 0; j < listSize; j++) {
+                list.add("item-" + i + "-" + j);
+            }
+            requests.add(BatchRequest.of(list));
+        }
+        randomGenerator = new RandomGenerator<String>();
+        executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdown();
+    }
+
+    @Benchmark
+    public List<List<String>> generatorPerList() {
+        List<List<String>> results = new ArrayList<List<String>>(lists);
+        for (BatchRequest<String> request : requests) {
+            results.add(new RandomGenerator<String>().randomize(request.getList()));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<List<String>> sharedGenerator() {
+        List<List<String>> results = new ArrayList<List<String>>(lists);
+        for (BatchRequest<String> request : requests) {
+            results.add(randomGenerator.randomize(request.getList()));
+        }
+        return results;
+    }
+
+    @Benchmark
+    public List<List<String>> batch() {
+        return randomGenerator.randomizeAll(requests);
+    }
+
+    @Benchmark
+    public List<List<String>> batchWithExecutor() {
+        return randomGenerator.randomizeAll(requests, executorService);
+    }
+}
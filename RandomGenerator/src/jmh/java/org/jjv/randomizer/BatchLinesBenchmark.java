@@ -0,0 +1,81 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to randomize 100,000 independent comma-separated lines with the -batch CLI option, on one
+ * thread and on a worker pool.  The output is discarded, so only reading and randomizing is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class BatchLinesBenchmark {
+
+    private static final int LINES = 100000;
+
+    @Param({ "1", "4" })
+    public int threads;
+
+    @Param({ "0", "3" })
+    public int returnSize;
+
+    private String input;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            for (int j = 0; j < 20; j++) {
+                sb.append("item-").append(i).append('-').append(j).append(',');
+            }
+            sb.append('\n');
+        }
+        input = sb.toString();
+    }
+
+    @Benchmark
+    public long randomizeLines() throws IOException {
+        return BatchLineRandomizer.randomize(new BufferedReader(new StringReader(input)), NullWriter.INSTANCE, ",", returnSize,
+                RandomSource.threadLocal(), threads);
+    }
+
+    private static final class NullWriter extends Writer {
+        static final NullWriter INSTANCE = new NullWriter();
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public Writer append(CharSequence csq) {
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of one CLI-sized randomize call made through a running -serve daemon, compared with
+ * starting a new JVM for every call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DaemonBenchmark {
+
+    private static final String LIST_STRING = "One~~~Two~~~Three~~~Four~~~Five~~~Six~~~Seven~~~Eight~~~Nine~~~Ten~~~";
+    private static final String REQUEST = "randomize\t" + LIST_STRING + "\n";
+
+    private RandomizerServer server;
+    private Socket socket;
+    private BufferedReader reader;
+    private OutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = new RandomizerServer(0, "benchmark");
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        socket.setTcpNoDelay(true);
+        reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = socket.getOutputStream();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        socket.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String persistentConnection() throws IOException {
+        out.write(REQUEST.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        return reader.readLine();
+    }
+
+    @Benchmark
+    public String connectionPerCall() throws IOException {
+        return RandomizerClient.randomize(server.getPort(), LIST_STRING, RandomGenerator.DEFAULT_DELIMITER, null, null);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 1, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public String jvmPerCall() throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                Main.class.getName(), LIST_STRING).redirectErrorStream(true).start();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        process.waitFor();
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,91 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to shuffle a newline-delimited file of the given size (in MB) into another file, using the
+ * external shuffle with a fixed memory budget and using the memory-mapped shuffle.  Dividing the
+ * file size by the score gives the throughput; a flat throughput as the file grows past the memory
+ * budget shows that the external shuffle scales linearly.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Benchmark)
+public class ExternalShuffleBenchmark {
+
+    private static final byte[] NEWLINE = "\n".getBytes(StandardCharsets.UTF_8);
+
+    @Param({ "16", "64", "256" })
+    public int fileSizeMb;
+
+    @Param({ "8388608" })
+    public long memoryBudget;
+
+    private Path directory;
+    private Path input;
+    private Path output;
+    private ExternalShuffler externalShuffler;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("external-shuffle-benchmark-");
+        input = directory.resolve("input.txt");
+        output = directory.resolve("output.txt");
+
+        long targetSize = (long) fileSizeMb << 20;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(input), 1 << 16)) {
+            long written = 0;
+            for (long i = 0; written < targetSize; i++) {
+                byte[] record = ("record-" + i + "-0123456789abcdefghijklmnopqrstuvwxyz\n").getBytes(StandardCharsets.UTF_8);
+                out.write(record);
+                written += record.length;
+            }
+        }
+
+        externalShuffler = ExternalShuffler.builder().memoryBudget(memoryBudget).delimiter("\n")
+                .tempDirectory(directory).build();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long externalShuffle() throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            return externalShuffler.shuffle(input, out);
+        }
+    }
+
+    @Benchmark
+    public long mappedShuffle() throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+            return MappedFileShuffler.shuffle(input, NEWLINE, 0, RandomSource.threadLocal(), out);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares duplicate suppression by toString(), by equals()/hashCode() and by an extracted id for
+ * domain objects whose toString() builds a string from several fields.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyStrategyBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private List<Destination> destinations;
+    private RandomGenerator<Destination> toStringGenerator;
+    private RandomGenerator<Destination> equalsGenerator;
+    private RandomGenerator<Destination> extractorGenerator;
+
+    @Setup
+    public void setUp() {
+        destinations = new ArrayList<Destination>(size);
+        for (int i = 0; i < size; i++) {
+            destinations.add(new Destination(i % (size / 2), "destination-" + i, "region-" + i % 7, i % 5 + 1));
+        }
+        toStringGenerator = RandomGenerator.<Destination>builder().build();
+        equalsGenerator = RandomGenerator.<Destination>builder().keyStrategy(KeyStrategy.equalsAndHashCode()).build();
+        extractorGenerator = RandomGenerator.<Destination>builder().keyStrategy(Destination::getId).build();
+    }
+
+    @Benchmark
+    public List<Destination> toStringKey() {
+        return toStringGenerator.randomize(destinations);
+    }
+
+    @Benchmark
+    public List<Destination> equalsAndHashCode() {
+        return equalsGenerator.randomize(destinations);
+    }
+
+    @Benchmark
+    public List<Destination> keyExtractor() {
+        return extractorGenerator.randomize(destinations);
+    }
+
+    public static class Destination {
+        private final int id;
+        private final String name;
+        private final String region;
+        private final Integer rating;
+
+        Destination(int id, String name, String region, Integer rating) {
+            this.id = id;
+            this.name = name;
+            this.region = region;
+            this.rating = rating;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Destination && ((Destination) other).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public String toString() {
+            return "Destination(id=" + id + ", region=" + region + ", rating=" + rating + ")";
+        }
+    }
+}
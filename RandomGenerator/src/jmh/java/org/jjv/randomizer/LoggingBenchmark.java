@@ -0,0 +1,72 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost per element of debug logging while the configured level is error.  Run with
+ * the GC profiler (the default) and compare gc.alloc.rate.norm: string concatenation allocates for
+ * every element, parameterized and guarded calls allocate nothing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoggingBenchmark {
+
+    private static final int SIZE = 1000;
+    final static Logger logger = LogManager.getLogger(LoggingBenchmark.class);
+
+    private List<String> items;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<String>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            items.add("item-" + i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void concatenated() {
+        for (int i = 0; i < items.size(); i++) {
+            logger.debug("item = " + items.get(i) + ", listSize = " + items.size());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void parameterized() {
+        for (String item : items) {
+            logger.debug("item = {}", item);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SIZE)
+    public void guarded() {
+        for (int i = 0; i < items.size(); i++) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("item = {}, listSize = {}", items.get(i), items.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares randomize calls without a MetricsSink (the default no-op sink) and with a
+ * JmxMetricsSink, to confirm that disabled metrics add no measurable cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({ "10", "1000" })
+    public int size;
+
+    private List<String> items;
+    private RandomGenerator<String> noopGenerator;
+    private RandomGenerator<String> jmxGenerator;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            items.add("item-" + i);
+        }
+        noopGenerator = RandomGenerator.<String>builder().build();
+        jmxGenerator = RandomGenerator.<String>builder().metricsSink(new JmxMetricsSink()).build();
+    }
+
+    @Benchmark
+    public List<String> noopSink() {
+        return noopGenerator.randomize(items);
+    }
+
+    @Benchmark
+    public List<String> jmxSink() {
+        return jmxGenerator.randomize(items);
+    }
+}
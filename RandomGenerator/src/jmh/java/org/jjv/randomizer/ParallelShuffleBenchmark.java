@@ -0,0 +1,69 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full shuffle of large lists with the sequential engine (parallelism = 0) and the fork/join merge
+ * shuffle at 1 to 16 threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ParallelShuffleBenchmark {
+
+    @Param({ "1000000", "10000000" })
+    public int size;
+
+    @Param({ "0", "1", "2", "4", "8", "16" })
+    public int parallelism;
+
+    private List<Long> tList;
+    private ForkJoinPool forkJoinPool;
+    private RandomGenerator<Long> randomGenerator;
+
+    @Setup
+    public void setUp() {
+        tList = new ArrayList<Long>(size);
+        for (long i = 0; i < size; i++) {
+            tList.add(i);
+        }
+
+        RandomGenerator.Builder<Long> builder = RandomGenerator.builder();
+        if (parallelism > 0) {
+            forkJoinPool = new ForkJoinPool(parallelism);
+            builder.parallel(forkJoinPool);
+        }
+        randomGenerator = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (forkJoinPool != null) {
+            forkJoinPool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public List<Long> randomize() {
+        return randomGenerator.randomize(tList);
+    }
+}
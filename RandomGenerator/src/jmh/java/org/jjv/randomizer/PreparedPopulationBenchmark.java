@@ -0,0 +1,97 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares drawing a few items from a large rated catalog with the List randomize methods, which
+ * resolve the ratings and keys of the whole catalog on every call, against drawing them from a
+ * PreparedPopulation of the same catalog.  The prepared draws are measured with the thread-local
+ * source and with a seeded source, which allocates when it is split.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PreparedPopulationBenchmark {
+
+    @Param({ "50000" })
+    public int size;
+
+    @Param({ "10" })
+    public int maxResults;
+
+    @Param({ "threadLocal", "seeded" })
+    public String source;
+
+    private List<Destination> destinations;
+    private RandomGenerator<Destination> randomGenerator;
+    private PreparedPopulation<Destination> population;
+    private List<Destination> target;
+
+    @Setup
+    public void setUp() {
+        destinations = new ArrayList<Destination>(size);
+        for (int i = 0; i < size; i++) {
+            destinations.add(new Destination("destination-" + i, i % 5 + 1));
+        }
+        randomGenerator = source.equals("seeded") ? RandomGenerator.<Destination>builder().seed(42L).build()
+                : new RandomGenerator<Destination>();
+        population = randomGenerator.prepare(destinations);
+        target = new ArrayList<Destination>(maxResults);
+    }
+
+    @Benchmark
+    public List<Destination> randomize() {
+        return randomGenerator.randomize(destinations, maxResults);
+    }
+
+    @Benchmark
+    public List<Destination> randomizeRated() {
+        return randomGenerator.randomize(destinations, maxResults, true);
+    }
+
+    @Benchmark
+    public List<Destination> preparedSample() {
+        target.clear();
+        population.sample(maxResults, target);
+        return target;
+    }
+
+    @Benchmark
+    public List<Destination> preparedSampleWeighted() {
+        target.clear();
+        population.sampleWeighted(maxResults, target);
+        return target;
+    }
+
+    public static class Destination {
+        private final String name;
+        private final Integer rating;
+
+        Destination(String name, Integer rating) {
+            this.name = name;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
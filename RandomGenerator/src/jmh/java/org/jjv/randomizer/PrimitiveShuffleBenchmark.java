@@ -0,0 +1,67 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the int[] overloads with boxing the same values into a List&lt;Integer&gt;.  Run with
+ * <code>-prof gc</code> to compare allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class PrimitiveShuffleBenchmark {
+
+    @Param({ "1000", "1000000" })
+    public int size;
+
+    @Param({ "0", "10" })
+    public int maxResults;
+
+    private int[] values;
+    private List<Integer> boxedValues;
+    private RandomGenerator<Integer> randomGenerator;
+
+    @Setup
+    public void setUp() {
+        values = new int[size];
+        boxedValues = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+            boxedValues.add(i);
+        }
+        randomGenerator = new RandomGenerator<Integer>();
+    }
+
+    @Benchmark
+    public int[] shuffleInPlace() {
+        randomGenerator.shuffle(values, maxResults);
+        return values;
+    }
+
+    @Benchmark
+    public int[] randomizeIntArray() {
+        return randomGenerator.randomize(values, maxResults);
+    }
+
+    @Benchmark
+    public List<Integer> randomizeBoxedList() {
+        return randomGenerator.randomize(boxedValues, maxResults);
+    }
+}
@@ -0,0 +1,81 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Throughput of the List randomize paths across list sizes from 10 to 10M, rated and unrated
+ * input, a full shuffle or a small maxResults, and unique or duplicate-heavy values.</p>
+ * <p>Run with <code>-prof gc</code> (the default jmh.args of the benchmark profile) to report the
+ * allocation rate next to the time per operation.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RandomGeneratorBenchmark {
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    public int size;
+
+    @Param({ "false", "true" })
+    public boolean useRating;
+
+    @Param({ "0", "10" })
+    public int maxResults;
+
+    /**
+     * unique = every value is distinct, duplicates = every value appears ten times
+     */
+    @Param({ "unique", "duplicates" })
+    public String values;
+
+    private List<BenchmarkItem> tList;
+    private RandomGenerator<BenchmarkItem> randomGenerator;
+
+    @Setup
+    public void setUp() {
+        int distinctValues = "duplicates".equals(values) ? Math.max(1, size / 10) : size;
+
+        tList = new ArrayList<BenchmarkItem>(size);
+        for (int i = 0; i < size; i++) {
+            tList.add(new BenchmarkItem("item-" + (i % distinctValues), i % 5 + 1));
+        }
+        randomGenerator = new RandomGenerator<BenchmarkItem>();
+    }
+
+    @Benchmark
+    public List<BenchmarkItem> randomize() {
+        return randomGenerator.randomize(tList, maxResults, useRating);
+    }
+
+    public static class BenchmarkItem {
+        private final String value;
+        private final Integer rating;
+
+        BenchmarkItem(String value, Integer rating) {
+            this.value = value;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
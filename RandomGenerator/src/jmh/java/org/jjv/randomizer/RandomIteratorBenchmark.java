@@ -0,0 +1,66 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the first few items of a randomized List, when the caller does not know in
+ * advance how many it will read, with randomize() against reading them from randomIterator().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RandomIteratorBenchmark {
+
+    @Param({ "100000" })
+    public int size;
+
+    @Param({ "10", "100000" })
+    public int consumed;
+
+    private List<String> items;
+    private RandomGenerator<String> randomGenerator;
+
+    @Setup
+    public void setUp() {
+        items = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            items.add("item-" + i);
+        }
+        randomGenerator = RandomGenerator.<String>builder().keyStrategy(KeyStrategy.equalsAndHashCode()).build();
+    }
+
+    @Benchmark
+    public void randomize(Blackhole blackhole) {
+        List<String> results = randomGenerator.randomize(items);
+        for (int i = 0; i < consumed; i++) {
+            blackhole.consume(results.get(i));
+        }
+    }
+
+    @Benchmark
+    public void randomIterator(Blackhole blackhole) {
+        Iterator<String> iterator = randomGenerator.randomIterator(items);
+        for (int i = 0; i < consumed; i++) {
+            blackhole.consume(iterator.next());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Compares the RandomSource implementations with the previous behavior of creating a new
+ * java.util.Random for every pick, using one RandomGenerator shared by every benchmark thread.</p>
+ * <p>Run once per thread count to see how each source scales, for example:</p>
+ * <pre>
+ * for t in 1 2 4 8; do mvn -P benchmark test-compile exec:exec -Djmh.args="RandomSourceBenchmark -t $t"; done
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RandomSourceBenchmark {
+
+    @Param({ "newRandomPerPick", "sharedRandom", "threadLocal", "splittable" })
+    public String source;
+
+    @Param({ "1000" })
+    public int size;
+
+    private List<String> tList;
+    private RandomGenerator<String> randomGenerator;
+
+    @Setup
+    public void setUp() {
+        tList = new ArrayList<String>(size);
+        for (int i = 0; i < size; i++) {
+            tList.add("item-" + i);
+        }
+        randomGenerator = new RandomGenerator<String>(createRandomSource(source));
+    }
+
+    @Benchmark
+    public List<String> randomize() {
+        return randomGenerator.randomize(tList);
+    }
+
+    private static RandomSource createRandomSource(String source) {
+        if ("newRandomPerPick".equals(source)) {
+            return new NewRandomPerPickSource();
+        } else if ("sharedRandom".equals(source)) {
+            return RandomSource.of(new Random());
+        } else if ("splittable".equals(source)) {
+            return RandomSource.splittable();
+        }
+        return RandomSource.threadLocal();
+    }
+
+    /**
+     * Mimics the original handleRandomization, which created a new Random for every pick.
+     */
+    private static class NewRandomPerPickSource implements RandomSource {
+        @Override
+        public int nextInt(int bound) {
+            return new Random().nextInt(bound);
+        }
+
+        @Override
+        public double nextDouble() {
+            return new Random().nextDouble();
+        }
+
+        @Override
+        public RandomSource split() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Compares the per-item reflective field scan that expandListForRatings used to run with the cached
+ * accessor, the Rated interface and a caller-supplied rating function.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RatingAccessBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int size;
+
+    private List<FieldRatedItem> fieldRatedItems;
+    private List<InterfaceRatedItem> interfaceRatedItems;
+
+    @Setup
+    public void setUp() {
+        fieldRatedItems = new ArrayList<FieldRatedItem>(size);
+        interfaceRatedItems = new ArrayList<InterfaceRatedItem>(size);
+        for (int i = 0; i < size; i++) {
+            fieldRatedItems.add(new FieldRatedItem("item-" + i, i % 5 + 1));
+            interfaceRatedItems.add(new InterfaceRatedItem("item-" + i, i % 5 + 1));
+        }
+    }
+
+    @Benchmark
+    public long legacyReflectionScan() {
+        long sum = 0;
+        for (FieldRatedItem item : fieldRatedItems) {
+            for (Field field : item.getClass().getDeclaredFields()) {
+                field.setAccessible(true);
+                if (field.getName().equals(RandomGenerator.RATING) && field.getType().equals(Integer.class)) {
+                    try {
+                        sum += RatingWeights.weightOf((Integer) field.get(item));
+                    } catch (IllegalAccessException e) {
+                        sum++;
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long cachedFieldAccessor() {
+        long sum = 0;
+        for (FieldRatedItem item : fieldRatedItems) {
+            Function<Object, Integer> ratingAccessor = RatingAccessor.forClass(item.getClass());
+            sum += RatingWeights.weightOf(ratingAccessor.apply(item));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long ratedInterface() {
+        long sum = 0;
+        for (InterfaceRatedItem item : interfaceRatedItems) {
+            Function<Object, Integer> ratingAccessor = RatingAccessor.forClass(item.getClass());
+            sum += RatingWeights.weightOf(ratingAccessor.apply(item));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long ratingFunction() {
+        long sum = 0;
+        for (InterfaceRatedItem item : interfaceRatedItems) {
+            sum += RatingWeights.weightOf(item.getRating());
+        }
+        return sum;
+    }
+
+    public static class FieldRatedItem {
+        private String value;
+        private String description = "description";
+        private Long created = 0L;
+        private Integer rating;
+
+        FieldRatedItem(String value, Integer rating) {
+            this.value = value;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    public static class InterfaceRatedItem implements Rated {
+        private String value;
+        private Integer rating;
+
+        InterfaceRatedItem(String value, Integer rating) {
+            this.value = value;
+            this.rating = rating;
+        }
+
+        @Override
+        public Integer getRating() {
+            return rating;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start time of the CLI: every operation starts a new JVM that randomizes a five element
+ * list, with and without the -debug option (which starts log4j-core).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StartupBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean debug;
+
+    private List<String> command;
+
+    @Setup
+    public void setUp() {
+        command = new ArrayList<String>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(Main.class.getName());
+        command.add("One~~~Two~~~Three~~~Four~~~Five~~~");
+        if (debug) {
+            command.add("-debug");
+        }
+    }
+
+    @Benchmark
+    public int cliRun() throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            while (in.read(buffer) != -1) {
+                // the output is discarded, but must be read so that the process does not block
+            }
+        }
+        return process.waitFor();
+    }
+}
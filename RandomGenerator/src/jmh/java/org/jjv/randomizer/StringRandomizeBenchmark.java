@@ -0,0 +1,51 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of the delimited String randomize path used by the CLI.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class StringRandomizeBenchmark {
+
+    @Param({ "10", "1000", "100000", "1000000" })
+    public int size;
+
+    @Param({ "0", "10" })
+    public int maxResults;
+
+    private String thisString;
+    private RandomGenerator<String> randomGenerator;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            sb.append("item-").append(i).append(RandomGenerator.DEFAULT_DELIMITER);
+        }
+        thisString = sb.toString();
+        randomGenerator = new RandomGenerator<String>();
+    }
+
+    @Benchmark
+    public String randomize() {
+        return randomGenerator.randomize(thisString, RandomGenerator.DEFAULT_DELIMITER, maxResults);
+    }
+}
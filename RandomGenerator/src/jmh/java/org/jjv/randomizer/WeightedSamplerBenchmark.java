@@ -0,0 +1,80 @@
+package org.jjv.randomizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares changing one rating and drawing from a live catalog by randomizing the whole List
+ * again against updating a WeightedSampler.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WeightedSamplerBenchmark {
+
+    @Param({ "1000", "50000" })
+    public int size;
+
+    private List<Destination> destinations;
+    private RandomGenerator<Destination> randomGenerator;
+    private WeightedSampler<Destination> sampler;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        destinations = new ArrayList<Destination>(size);
+        sampler = new WeightedSampler<Destination>();
+        for (int i = 0; i < size; i++) {
+            Destination destination = new Destination("destination-" + i, i % 5 + 1);
+            destinations.add(destination);
+            sampler.add(destination, destination.rating);
+        }
+        randomGenerator = new RandomGenerator<Destination>();
+    }
+
+    @Benchmark
+    public List<Destination> updateAndRandomize() {
+        Destination destination = destinations.get(next++ % size);
+        destination.rating = destination.rating % 5 + 1;
+        return randomGenerator.randomize(destinations, 1, true);
+    }
+
+    @Benchmark
+    public Destination updateAndDraw() {
+        Destination destination = destinations.get(next++ % size);
+        destination.rating = destination.rating % 5 + 1;
+        sampler.updateRating(destination, destination.rating);
+        return sampler.draw();
+    }
+
+    public static class Destination {
+        private final String name;
+        private Integer rating;
+
+        Destination(String name, Integer rating) {
+            this.name = name;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.jjv.randomizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Randomizes every line of a reader as its own delimited list, used by the -batch CLI option,
+ * so that files with many independent lists are randomized in one process.</p>
+ * <p>Each line is randomized the same way as a listString, and written as one line of output in
+ * the same position as the input line.  The source of randomness is split once per line, in line
+ * order, on the reading thread, so a seeded run writes the same output for any number of
+ * threads.  One RandomGenerator is used per run (or per chunk), and draws every line from the
+ * line's own source.</p>
+ * <p>With more than one thread, lines are read in chunks of {@link #CHUNK_LINES} lines, which are
+ * randomized on a fixed pool of worker threads.  At most two chunks per thread are in flight, and
+ * their results are written in the order the chunks were read.</p>
+ */
+final class BatchLineRandomizer {
+
+    static final int CHUNK_LINES = 1024;
+
+    private BatchLineRandomizer() {
+    }
+
+    /**
+     * @param reader       lines to randomize
+     * @param writer       writer to write the randomized lines to (not flushed or closed)
+     * @param delimiter    delimiter between the elements of every line
+     * @param returnSize   the number of elements to return for every line (specify 0 to return all elements)
+     * @param randomSource source of randomness, split once per line
+     * @param threads      number of threads to randomize the lines on (1 randomizes on the calling thread)
+     * @return number of lines written
+     * @throws IOException if the lines cannot be read or written
+     */
+    static long randomize(BufferedReader reader, Writer writer, String delimiter, int returnSize, RandomSource randomSource,
+                          int threads) throws IOException {
+        if (delimiter == null || delimiter.isEmpty()) {
+            throw new IllegalArgumentException("delimiter cannot be null or empty");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be greater than zero");
+        }
+        if (threads == 1) {
+            return randomizeSequentially(reader, writer, delimiter, returnSize, randomSource);
+        }
+
+        AtomicInteger workers = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "randomizer-batch-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            return randomizeInParallel(reader, writer, delimiter, returnSize, randomSource, executorService, threads * 2);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static long randomizeSequentially(BufferedReader reader, Writer writer, String delimiter, int returnSize,
+                                              RandomSource randomSource) throws IOException {
+        RandomGenerator<String> randomGenerator = new RandomGenerator<String>(randomSource);
+        long lines = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            randomizeLine(randomGenerator, line, delimiter, returnSize, randomSource.split(), writer);
+            lines++;
+        }
+        return lines;
+    }
+
+    private static long randomizeInParallel(BufferedReader reader, Writer writer, String delimiter, int returnSize,
+                                            RandomSource randomSource, ExecutorService executorService, int maxChunks)
+            throws IOException {
+        Deque<Future<CharSequence>> chunks = new ArrayDeque<Future<CharSequence>>();
+        long lines = 0;
+
+        try {
+            boolean more = true;
+            while (more) {
+                String[] chunk = new String[CHUNK_LINES];
+                RandomSource[] randoms = new RandomSource[CHUNK_LINES];
+                int size = 0;
+                String line;
+                while (size < CHUNK_LINES && (line = reader.readLine()) != null) {
+                    chunk[size] = line;
+                    randoms[size++] = randomSource.split();
+                }
+                more = size == CHUNK_LINES;
+                lines += size;
+
+                if (size > 0) {
+                    int chunkSize = size;
+                    chunks.addLast(executorService.submit(() -> randomizeChunk(chunk, randoms, chunkSize, delimiter, returnSize)));
+                }
+                // the oldest chunk is written first, so the output keeps the order of the input
+                while (chunks.size() >= maxChunks || (!more && !chunks.isEmpty())) {
+                    writer.append(await(chunks.removeFirst()));
+                }
+            }
+            return lines;
+        } finally {
+            for (Future<CharSequence> chunk : chunks) {
+                chunk.cancel(true);
+            }
+        }
+    }
+
+    private static CharSequence randomizeChunk(String[] chunk, RandomSource[] randoms, int size, String delimiter,
+                                               int returnSize) throws IOException {
+        RandomGenerator<String> randomGenerator = new RandomGenerator<String>(randoms[0]);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            randomizeLine(randomGenerator, chunk[i], delimiter, returnSize, randoms[i], sb);
+        }
+        return sb;
+    }
+
+    private static void randomizeLine(RandomGenerator<String> randomGenerator, String line, String delimiter, int returnSize,
+                                      RandomSource random, Appendable out) throws IOException {
+        randomGenerator.randomize(line, delimiter, returnSize, out, random);
+        out.append('\n');
+    }
+
+    private static CharSequence await(Future<CharSequence> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the batch to complete", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
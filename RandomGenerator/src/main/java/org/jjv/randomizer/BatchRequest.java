@@ -0,0 +1,74 @@
+package org.jjv.randomizer;
+
+import java.util.List;
+
+/**
+ * <p>One List to randomize as part of a batch, along with the maxResults and useRating settings
+ * that apply to that List only.</p>
+ * <p>See {@link RandomGenerator#randomizeAll(java.util.Collection)}.</p>
+ *
+ * @param <T> type of the List items to randomize
+ */
+public final class BatchRequest<T> {
+
+    private final List<T> tList;
+    private final Integer maxResults;
+    private final Boolean useRating;
+
+    private BatchRequest(List<T> tList, Integer maxResults, Boolean useRating) {
+        this.tList = tList;
+        this.maxResults = maxResults != null ? maxResults : Integer.valueOf(0);
+        this.useRating = useRating != null ? useRating : Boolean.FALSE;
+    }
+
+    /**
+     * @param tList List object to randomize
+     * @param <T>   type of the List items to randomize
+     * @return new BatchRequest object returning all items of tList without using the rating field
+     */
+    public static <T> BatchRequest<T> of(List<T> tList) {
+        return new BatchRequest<T>(tList, null, null);
+    }
+
+    /**
+     * @param tList      List object to randomize
+     * @param maxResults the maximum size of the return List (specify 0 to return all items)
+     * @param <T>        type of the List items to randomize
+     * @return new BatchRequest object that does not use the rating field
+     */
+    public static <T> BatchRequest<T> of(List<T> tList, Integer maxResults) {
+        return new BatchRequest<T>(tList, maxResults, null);
+    }
+
+    /**
+     * @param tList      List object to randomize
+     * @param maxResults the maximum size of the return List (specify 0 to return all items)
+     * @param useRating  Boolean to indicate if rating field will be used
+     * @param <T>        type of the List items to randomize
+     * @return new BatchRequest object
+     */
+    public static <T> BatchRequest<T> of(List<T> tList, Integer maxResults, Boolean useRating) {
+        return new BatchRequest<T>(tList, maxResults, useRating);
+    }
+
+    /**
+     * @return List object to randomize
+     */
+    public List<T> getList() {
+        return tList;
+    }
+
+    /**
+     * @return the maximum size of the return List, where 0 means all items
+     */
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * @return Boolean indicating if the rating field will be used
+     */
+    public Boolean getUseRating() {
+        return useRating;
+    }
+}
@@ -0,0 +1,208 @@
+package org.jjv.randomizer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * <p>The non-empty tokens of a delimited CharSequence, recorded as start and end offsets into the
+ * source instead of as String objects.</p>
+ * <p>Tokens with the same characters share a group id, which is assigned while tokenizing by
+ * hashing each token's region of the source into an open-addressing table and comparing the
+ * regions of tokens with the same hash.  A draw then suppresses duplicates by group id, so the
+ * tokens are never copied until the result is written.</p>
+ * <p>A final token that is not followed by the delimiter is included like any other token.</p>
+ */
+final class DelimitedTokens {
+
+    private final CharSequence source;
+    private final int delimiterLength;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private int[] groups;
+    private int size;
+    private int groupCount;
+    private int draws;
+
+    private DelimitedTokens(CharSequence source, int delimiterLength) {
+        this.source = source;
+        this.delimiterLength = delimiterLength;
+    }
+
+    /**
+     * @param source    CharSequence to tokenize
+     * @param delimiter delimiter between the tokens, which cannot be empty
+     * @return new DelimitedTokens object with the offsets and group ids of the tokens in source
+     */
+    static DelimitedTokens tokenize(CharSequence source, String delimiter) {
+        DelimitedTokens tokens = new DelimitedTokens(source, delimiter.length());
+
+        int tokenStart = 0;
+        int position = 0;
+        int lastStart = source.length() - delimiter.length();
+        while (position <= lastStart) {
+            if (regionMatches(source, position, delimiter)) {
+                tokens.add(tokenStart, position);
+                position += delimiter.length();
+                tokenStart = position;
+            } else {
+                position++;
+            }
+        }
+        tokens.add(tokenStart, source.length());
+
+        tokens.assignGroups();
+        return tokens;
+    }
+
+    private static boolean regionMatches(CharSequence source, int offset, String delimiter) {
+        for (int i = 0; i < delimiter.length(); i++) {
+            if (source.charAt(offset + i) != delimiter.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void add(int start, int end) {
+        if (start == end) {
+            return;
+        }
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    private void assignGroups() {
+        groups = new int[size];
+        int[] hashes = new int[size];
+
+        // table entries hold the first token of a group plus one, so that zero marks an empty slot
+        int[] table = new int[Integer.highestOneBit(Math.max(size, 1) * 2 - 1) << 1];
+        int mask = table.length - 1;
+
+        for (int token = 0; token < size; token++) {
+            int hash = hash(token);
+            hashes[token] = hash;
+
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (table[slot] != 0) {
+                int other = table[slot] - 1;
+                if (hashes[other] == hash && sameCharacters(token, other)) {
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (table[slot] == 0) {
+                table[slot] = token + 1;
+                groups[token] = groupCount++;
+            } else {
+                groups[token] = groups[table[slot] - 1];
+            }
+        }
+    }
+
+    private int hash(int token) {
+        int hash = 0;
+        for (int i = starts[token]; i < ends[token]; i++) {
+            hash = 31 * hash + source.charAt(i);
+        }
+        return hash;
+    }
+
+    private boolean sameCharacters(int token, int other) {
+        int length = ends[token] - starts[token];
+        if (length != ends[other] - starts[other]) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (source.charAt(starts[token] + i) != source.charAt(starts[other] + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return number of tokens, including duplicates
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return number of distinct tokens
+     */
+    int groupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return number of tokens drawn by the last call to draw(), including duplicates that were discarded
+     */
+    int draws() {
+        return draws;
+    }
+
+    /**
+     * Draws distinct tokens in random order with a swap-remove Fisher-Yates pass over the token
+     * indexes, discarding every token whose group has already been drawn.
+     *
+     * @param maxResults the maximum number of tokens to draw (specify 0 to draw all distinct tokens)
+     * @param random     source of randomness for this draw
+     * @return indexes of the drawn tokens in the order they were drawn
+     */
+    int[] draw(int maxResults, RandomSource random) {
+        int[] pool = new int[size];
+        for (int i = 0; i < size; i++) {
+            pool[i] = i;
+        }
+
+        int limit = maxResults > 0 ? Math.min(maxResults, groupCount) : groupCount;
+        int[] drawn = new int[limit];
+        boolean[] drawnGroups = new boolean[groupCount];
+        int count = 0;
+        int remaining = size;
+        draws = 0;
+
+        while (count < limit) {
+            int winner = remaining == 1 ? 0 : random.nextInt(remaining);
+            int token = pool[winner];
+            remaining--;
+            pool[winner] = pool[remaining];
+            draws++;
+
+            if (!drawnGroups[groups[token]]) {
+                drawnGroups[groups[token]] = true;
+                drawn[count++] = token;
+            }
+        }
+
+        return drawn;
+    }
+
+    /**
+     * @param drawn indexes of tokens
+     * @return number of characters needed to write the given tokens, each followed by the delimiter
+     */
+    int length(int[] drawn) {
+        int length = 0;
+        for (int token : drawn) {
+            length += ends[token] - starts[token] + delimiterLength;
+        }
+        return length;
+    }
+
+    /**
+     * @param appendable Appendable to write to
+     * @param token      index of the token to write
+     * @throws IOException if the Appendable cannot be written to
+     */
+    void appendTo(Appendable appendable, int token) throws IOException {
+        appendable.append(source, starts[token], ends[token]);
+    }
+}
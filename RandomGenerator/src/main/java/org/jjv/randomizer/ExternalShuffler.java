@@ -0,0 +1,722 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * <p>Disk-backed shuffle for delimited record streams that do not fit on the heap.</p>
+ * <p>Like the List and String randomize methods, duplicate records are written once.  Duplicates
+ * are removed first: every record is appended to one of N temporary partition files chosen by a
+ * hash of its bytes, so that all copies of a record land in the same partition, and the distinct
+ * records of each partition are then found in memory and appended to a file of distinct records.
+ * A partition with more distinct records than fit in memory is partitioned again, recursively,
+ * with a different hash.</p>
+ * <p>The distinct records are then shuffled with a random-bucket external shuffle: every record is
+ * appended to one of N temporary bucket files chosen uniformly at random, then each bucket is read
+ * back, shuffled in memory with Fisher-Yates and written to the output, one bucket after the other.
+ * Because every record picks its bucket independently, the concatenated result is a uniformly
+ * random permutation of the distinct records.  A bucket that turns out to be too large for the
+ * memory budget is shuffled the same way, recursively.</p>
+ * <p>Heap use stays within the memory budget, apart from the largest record and 8 bytes per record
+ * of the bucket being shuffled in memory.  Up to a quarter of the budget is shared by the read
+ * buffers of the input and of the files being split recursively, and the rest is used by one
+ * phase at a time: the write buffers of the partition or bucket files, which take at most half of
+ * the budget (so a small budget gets fewer files), the distinct records of one partition, which
+ * take at most half of the budget including {@value #DISTINCT_RECORD_OVERHEAD} bytes per record
+ * of bookkeeping, and one bucket of at most a third of the budget during the shuffle phase.</p>
+ * <p>An ExternalShuffler may be shared between threads; every shuffle uses its own temporary directory.</p>
+ */
+public final class ExternalShuffler {
+
+    final static Logger logger = LogManager.getLogger(ExternalShuffler.class);
+
+    /**
+     * Default memory budget of 64 MB.
+     */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    private static final int DEFAULT_BUCKET_COUNT = 64;
+    private static final int MAX_BUCKET_COUNT = 512;
+    private static final long MIN_MEMORY_BUDGET = 8 << 10;
+    private static final int MIN_BUCKET_BUFFER_SIZE = 512;
+    private static final int MAX_BUCKET_BUFFER_SIZE = 64 << 10;
+    private static final int MAX_DEPTH = 4;
+    static final int DISTINCT_RECORD_OVERHEAD = 40;
+
+    private final long memoryBudget;
+    private final byte[] delimiter;
+    private final Path tempDirectory;
+    private final RandomSource randomSource;
+    private final int bucketCount;
+
+    private ExternalShuffler(Builder builder) {
+        this.memoryBudget = builder.memoryBudget;
+        this.delimiter = builder.delimiter.getBytes(StandardCharsets.UTF_8);
+        this.tempDirectory = builder.tempDirectory;
+        this.randomSource = builder.randomSource;
+        this.bucketCount = builder.bucketCount;
+    }
+
+    /**
+     * @return new Builder object using the default settings
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Writes the distinct records of the input file to out in random order, each followed by the delimiter.
+     * The number of partitions is chosen from the size of the file, so that every partition fits in memory.
+     *
+     * @param input file containing the delimited records
+     * @param out   stream to write the records to, which is neither flushed nor closed
+     * @return number of records written
+     * @throws IOException if the input cannot be read, or the temporary files or output cannot be written
+     */
+    public long shuffle(Path input, OutputStream out) throws IOException {
+        return shuffle(input, out, 0);
+    }
+
+    /**
+     * Writes maxResults distinct records of the input file to out in random order, each followed by the delimiter.
+     *
+     * @param input      file containing the delimited records
+     * @param out        stream to write the records to, which is neither flushed nor closed
+     * @param maxResults the number of records to write (specify 0 to write all records)
+     * @return number of records written
+     * @throws IOException if the input cannot be read, or the temporary files or output cannot be written
+     */
+    public long shuffle(Path input, OutputStream out, long maxResults) throws IOException {
+        try (InputStream in = Files.newInputStream(input)) {
+            return shuffle(new DelimitedRecordReader(in, delimiter, readBufferSize()), partitionCountFor(Files.size(input)), out,
+                    maxResults);
+        }
+    }
+
+    /**
+     * Writes the distinct records read from in to out in random order, each followed by the delimiter.
+     *
+     * @param in  stream containing the delimited records, which is read to its end but not closed
+     * @param out stream to write the records to, which is neither flushed nor closed
+     * @return number of records written
+     * @throws IOException if the input cannot be read, or the temporary files or output cannot be written
+     */
+    public long shuffle(InputStream in, OutputStream out) throws IOException {
+        return shuffle(in, out, 0);
+    }
+
+    /**
+     * Writes maxResults distinct records read from in to out in random order, each followed by the delimiter.
+     *
+     * @param in         stream containing the delimited records, which is read to its end but not closed
+     * @param out        stream to write the records to, which is neither flushed nor closed
+     * @param maxResults the number of records to write (specify 0 to write all records)
+     * @return number of records written
+     * @throws IOException if the input cannot be read, or the temporary files or output cannot be written
+     */
+    public long shuffle(InputStream in, OutputStream out, long maxResults) throws IOException {
+        return shuffle(new DelimitedRecordReader(in, delimiter, readBufferSize()), Math.min(bucketCount, maxBucketCount()), out,
+                maxResults);
+    }
+
+    private long shuffle(RecordReader reader, int partitionCount, OutputStream out, long maxResults) throws IOException {
+        Path directory = tempDirectory != null ? Files.createTempDirectory(tempDirectory, "random-generator-")
+                : Files.createTempDirectory("random-generator-");
+        try {
+            Path distinct = directory.resolve("distinct");
+            try (DataOutputStream distinctStream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(distinct),
+                    readBufferSize()))) {
+                long distinctCount = removeDuplicates(reader, partitionCount, directory, distinctStream, 0);
+                logger.debug("found {} distinct records", distinctCount);
+            }
+
+            RecordWriter writer = new RecordWriter(out, delimiter, maxResults > 0 ? maxResults : Long.MAX_VALUE);
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(distinct), readBufferSize())) {
+                shuffle(new PrefixedRecordReader(in), bucketCountFor(Files.size(distinct)), directory, randomSource.split(), writer, 0);
+            }
+            return writer.written;
+        } finally {
+            deleteDirectory(directory);
+        }
+    }
+
+    private int partitionCountFor(long inputSize) {
+        // records shorter than the overhead per distinct record take several times their size in memory
+        long partitionSize = Math.max(maxDistinctSize() / 8, 1);
+        long partitionCount = (inputSize + partitionSize - 1) / partitionSize;
+        return (int) Math.max(1, Math.min(partitionCount, maxBucketCount()));
+    }
+
+    private int bucketCountFor(long inputSize) {
+        // length prefixes make the buckets larger than the input, so aim for half of the in-memory limit
+        long bucketCount = (inputSize + maxInMemoryBucketSize() / 2 - 1) / (maxInMemoryBucketSize() / 2);
+        return (int) Math.max(1, Math.min(bucketCount, maxBucketCount()));
+    }
+
+    /**
+     * @return the number of buckets whose write buffers fit in half of the memory budget
+     */
+    int maxBucketCount() {
+        return (int) Math.max(2, Math.min(memoryBudget / 2 / MIN_BUCKET_BUFFER_SIZE, MAX_BUCKET_COUNT));
+    }
+
+    /**
+     * @param bucketCount the number of buckets being written
+     * @return size of the write buffer of each bucket file
+     */
+    int bucketBufferSize(int bucketCount) {
+        return (int) Math.max(MIN_BUCKET_BUFFER_SIZE, Math.min(MAX_BUCKET_BUFFER_SIZE, memoryBudget / 2 / bucketCount));
+    }
+
+    /**
+     * @return size of the read buffer of the input and of every bucket being split recursively, so that the
+     * buffers of all levels fit in a quarter of the memory budget
+     */
+    int readBufferSize() {
+        return (int) Math.min(MAX_BUCKET_BUFFER_SIZE, memoryBudget / 4 / (MAX_DEPTH + 1));
+    }
+
+    private long maxInMemoryBucketSize() {
+        return Math.max(Math.min(memoryBudget / 3, Integer.MAX_VALUE - 8), 1);
+    }
+
+    /**
+     * @return the number of bytes of records and bookkeeping that the distinct records of one partition may take,
+     * which leaves room for an array of record bytes of the same size
+     */
+    long maxDistinctSize() {
+        return Math.min(memoryBudget / 4, Integer.MAX_VALUE - 8);
+    }
+
+    private long removeDuplicates(RecordReader reader, int partitionCount, Path directory, DataOutputStream distinct, int depth)
+            throws IOException {
+        Path[] partitions = partition(reader, partitionCount, directory, depth);
+        logger.debug("partitioned records into {} partitions", partitionCount);
+
+        long distinctCount = 0;
+        for (Path partition : partitions) {
+            distinctCount += removeDuplicates(partition, directory, distinct, depth);
+            Files.delete(partition);
+        }
+        return distinctCount;
+    }
+
+    private long removeDuplicates(Path partition, Path directory, DataOutputStream distinct, int depth) throws IOException {
+        long partitionSize = Files.size(partition);
+        if (partitionSize == 0) {
+            return 0;
+        }
+
+        // the partition file holds every distinct record, so its size bounds the bytes of the distinct records
+        DistinctRecords distinctRecords = new DistinctRecords((int) Math.min(partitionSize, maxDistinctSize()), maxDistinctSize(),
+                depth);
+        boolean fits = true;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(partition), readBufferSize())) {
+            PrefixedRecordReader reader = new PrefixedRecordReader(in);
+            int length;
+            while (fits && (length = reader.next()) >= 0) {
+                fits = distinctRecords.add(reader.record(), length);
+            }
+        }
+        if (fits) {
+            return distinctRecords.writeTo(distinct);
+        }
+
+        distinctRecords = null;
+        if (depth == MAX_DEPTH) {
+            throw new IOException("partition " + partition + " could not be split below the memory budget, which may be"
+                    + " smaller than the largest record");
+        }
+        logger.debug("partition {} has more distinct records than fit in the memory budget, partitioning it again", partition);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(partition), readBufferSize())) {
+            return removeDuplicates(new PrefixedRecordReader(in), Math.max(2, partitionCountFor(partitionSize)),
+                    Files.createTempDirectory(directory, "partition-"), distinct, depth + 1);
+        }
+    }
+
+    private Path[] partition(RecordReader reader, int partitionCount, Path directory, int depth) throws IOException {
+        int bufferSize = bucketBufferSize(partitionCount);
+        Path[] partitions = new Path[partitionCount];
+        DataOutputStream[] partitionStreams = new DataOutputStream[partitionCount];
+
+        try {
+            for (int i = 0; i < partitionCount; i++) {
+                partitions[i] = directory.resolve("partition-" + i);
+                partitionStreams[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partitions[i]),
+                        bufferSize));
+            }
+
+            int length;
+            while ((length = reader.next()) >= 0) {
+                // the high bits pick the partition, and the low bits the slot of the record in DistinctRecords
+                int partition = (int) ((hash(reader.record(), length, depth) >>> 32) % partitionCount);
+                DataOutputStream partitionStream = partitionStreams[partition];
+                partitionStream.writeInt(length);
+                partitionStream.write(reader.record(), 0, length);
+            }
+        } finally {
+            for (DataOutputStream partitionStream : partitionStreams) {
+                if (partitionStream != null) {
+                    partitionStream.close();
+                }
+            }
+        }
+
+        return partitions;
+    }
+
+    /**
+     * @return 64-bit FNV-1a hash of the record, seeded by the depth so that every level of partitioning splits
+     * the records differently
+     */
+    private static long hash(byte[] record, int length, int depth) {
+        long hash = 0xcbf29ce484222325L ^ (depth * 0x9e3779b97f4a7c15L);
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (record[i] & 0xff)) * 0x100000001b3L;
+        }
+        // FNV mixes the last bytes poorly into the high bits, so finish with the SplitMix64 mixer
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+
+    private void shuffle(RecordReader reader, int bucketCount, Path directory, RandomSource random, RecordWriter writer,
+                         int depth) throws IOException {
+        Path[] buckets = scatter(reader, bucketCount, directory, random);
+        logger.debug("scattered records into {} buckets", bucketCount);
+
+        for (Path bucket : buckets) {
+            if (!writer.isFull()) {
+                long bucketSize = Files.size(bucket);
+                if (bucketSize <= maxInMemoryBucketSize()) {
+                    shuffleInMemory(bucket, random, writer);
+                } else if (depth == MAX_DEPTH) {
+                    throw new IOException("bucket " + bucket + " could not be split below the memory budget, which may be"
+                            + " smaller than the largest record");
+                } else {
+                    logger.debug("bucket {} exceeds the memory budget, shuffling it recursively", bucket);
+                    try (InputStream in = new BufferedInputStream(Files.newInputStream(bucket), readBufferSize())) {
+                        shuffle(new PrefixedRecordReader(in), Math.max(2, bucketCountFor(bucketSize)),
+                                Files.createTempDirectory(directory, "bucket-"), random, writer, depth + 1);
+                    }
+                }
+            }
+            Files.delete(bucket);
+        }
+    }
+
+    private Path[] scatter(RecordReader reader, int bucketCount, Path directory, RandomSource random) throws IOException {
+        int bufferSize = bucketBufferSize(bucketCount);
+        Path[] buckets = new Path[bucketCount];
+        DataOutputStream[] bucketStreams = new DataOutputStream[bucketCount];
+
+        try {
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = directory.resolve("bucket-" + i);
+                bucketStreams[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(buckets[i]), bufferSize));
+            }
+
+            int length;
+            while ((length = reader.next()) >= 0) {
+                DataOutputStream bucketStream = bucketStreams[bucketCount == 1 ? 0 : random.nextInt(bucketCount)];
+                bucketStream.writeInt(length);
+                bucketStream.write(reader.record(), 0, length);
+            }
+        } finally {
+            for (DataOutputStream bucketStream : bucketStreams) {
+                if (bucketStream != null) {
+                    bucketStream.close();
+                }
+            }
+        }
+
+        return buckets;
+    }
+
+    private void shuffleInMemory(Path bucket, RandomSource random, RecordWriter writer) throws IOException {
+        byte[] data = Files.readAllBytes(bucket);
+
+        int count = 0;
+        for (int position = 0; position < data.length; position += 4 + readInt(data, position)) {
+            count++;
+        }
+
+        int[] starts = new int[count];
+        int[] lengths = new int[count];
+        for (int i = 0, position = 0; i < count; i++) {
+            lengths[i] = readInt(data, position);
+            starts[i] = position + 4;
+            position = starts[i] + lengths[i];
+        }
+
+        for (int i = count - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int start = starts[i];
+            starts[i] = starts[j];
+            starts[j] = start;
+            int length = lengths[i];
+            lengths[i] = lengths[j];
+            lengths[j] = length;
+        }
+
+        for (int i = 0; i < count && !writer.isFull(); i++) {
+            writer.write(data, starts[i], lengths[i]);
+        }
+    }
+
+    private static int readInt(byte[] data, int position) {
+        return (data[position] & 0xff) << 24 | (data[position + 1] & 0xff) << 16 | (data[position + 2] & 0xff) << 8
+                | (data[position + 3] & 0xff);
+    }
+
+    private static void deleteDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            Path[] sorted = paths.toArray(Path[]::new);
+            // children are listed after their parents, so delete in reverse order
+            for (int i = sorted.length - 1; i >= 0; i--) {
+                Files.deleteIfExists(sorted[i]);
+            }
+        }
+    }
+
+    /**
+     * The distinct records of one partition, found with an open-addressing table of record indexes.
+     */
+    private static final class DistinctRecords {
+        private final byte[] data;
+        private final long maxSize;
+        private final int depth;
+        private int dataSize;
+        private int count;
+        private int[] starts = new int[64];
+        private int[] lengths = new int[64];
+        private int[] hashes = new int[64];
+        private int[] table = new int[128];
+
+        DistinctRecords(int dataCapacity, long maxSize, int depth) {
+            this.data = new byte[dataCapacity];
+            this.maxSize = maxSize;
+            this.depth = depth;
+        }
+
+        /**
+         * @return false if the record is new, but does not fit in the memory budget
+         */
+        boolean add(byte[] record, int length) {
+            int hash = (int) hash(record, length, depth);
+            int mask = table.length - 1;
+            int slot = hash & mask;
+            // table entries hold the record index plus one, so that zero marks an empty slot
+            for (int index; (index = table[slot]) != 0; slot = (slot + 1) & mask) {
+                if (hashes[index - 1] == hash && sameRecord(index - 1, record, length)) {
+                    return true;
+                }
+            }
+
+            if (length > data.length - dataSize
+                    || dataSize + length + (long) DISTINCT_RECORD_OVERHEAD * (count + 1) > maxSize) {
+                return false;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+                hashes = Arrays.copyOf(hashes, count * 2);
+            }
+            System.arraycopy(record, 0, data, dataSize, length);
+            starts[count] = dataSize;
+            lengths[count] = length;
+            hashes[count] = hash;
+            dataSize += length;
+            table[slot] = ++count;
+
+            if (count * 2 > table.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        private boolean sameRecord(int index, byte[] record, int length) {
+            if (lengths[index] != length) {
+                return false;
+            }
+            for (int i = 0, start = starts[index]; i < length; i++) {
+                if (data[start + i] != record[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            int mask = table.length - 1;
+            for (int i = 0; i < count; i++) {
+                int slot = hashes[i] & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = i + 1;
+            }
+        }
+
+        /**
+         * @return the number of records written
+         */
+        int writeTo(DataOutputStream out) throws IOException {
+            for (int i = 0; i < count; i++) {
+                out.writeInt(lengths[i]);
+                out.write(data, starts[i], lengths[i]);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Source of records for the partition and scatter phases.
+     */
+    private interface RecordReader {
+
+        /**
+         * @return the length of the next record, which is held in record(), or -1 at the end of the input
+         * @throws IOException if the input cannot be read
+         */
+        int next() throws IOException;
+
+        /**
+         * @return buffer holding the record returned by the last call to next()
+         */
+        byte[] record();
+    }
+
+    /**
+     * Splits an InputStream into records on the delimiter bytes, skipping empty records.
+     */
+    private static final class DelimitedRecordReader implements RecordReader {
+        private final InputStream in;
+        private final byte[] delimiter;
+        private final byte[] buffer;
+        private int position;
+        private int limit;
+        private byte[] record = new byte[256];
+
+        DelimitedRecordReader(InputStream in, byte[] delimiter, int bufferSize) {
+            this.in = in;
+            this.delimiter = delimiter;
+            this.buffer = new byte[bufferSize];
+        }
+
+        @Override
+        public int next() throws IOException {
+            byte last = delimiter[delimiter.length - 1];
+            int length = 0;
+
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return length > 0 ? length : -1;
+                    }
+                }
+
+                byte b = buffer[position++];
+                if (length == record.length) {
+                    record = Arrays.copyOf(record, length * 2);
+                }
+                record[length++] = b;
+
+                if (b == last && endsWithDelimiter(length)) {
+                    length -= delimiter.length;
+                    if (length > 0) {
+                        return length;
+                    }
+                }
+            }
+        }
+
+        private boolean endsWithDelimiter(int length) {
+            if (length < delimiter.length) {
+                return false;
+            }
+            for (int i = 0, offset = length - delimiter.length; i < delimiter.length; i++) {
+                if (record[offset + i] != delimiter[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public byte[] record() {
+            return record;
+        }
+    }
+
+    /**
+     * Reads the length-prefixed records of a bucket file.
+     */
+    private static final class PrefixedRecordReader implements RecordReader {
+        private final DataInputStream in;
+        private byte[] record = new byte[256];
+
+        PrefixedRecordReader(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        @Override
+        public int next() throws IOException {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return -1;
+            }
+            if (length > record.length) {
+                record = new byte[Math.max(length, record.length * 2)];
+            }
+            in.readFully(record, 0, length);
+            return length;
+        }
+
+        @Override
+        public byte[] record() {
+            return record;
+        }
+    }
+
+    /**
+     * Writes records to the output, each followed by the delimiter, until maxResults have been written.
+     */
+    private static final class RecordWriter {
+        private final OutputStream out;
+        private final byte[] delimiter;
+        private final long maxResults;
+        private long written;
+
+        RecordWriter(OutputStream out, byte[] delimiter, long maxResults) {
+            this.out = out;
+            this.delimiter = delimiter;
+            this.maxResults = maxResults;
+        }
+
+        void write(byte[] data, int offset, int length) throws IOException {
+            out.write(data, offset, length);
+            out.write(delimiter);
+            written++;
+        }
+
+        boolean isFull() {
+            return written >= maxResults;
+        }
+    }
+
+    /**
+     * Builder for ExternalShuffler objects.
+     */
+    public static final class Builder {
+        private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+        private String delimiter = RandomGenerator.DEFAULT_DELIMITER;
+        private Path tempDirectory;
+        private RandomSource randomSource = RandomSource.threadLocal();
+        private int bucketCount = DEFAULT_BUCKET_COUNT;
+
+        private Builder() {
+        }
+
+        /**
+         * @param memoryBudget the number of heap bytes a shuffle may use (defaults to 64 MB, and must be at least 8 KB)
+         * @return this Builder object
+         */
+        public Builder memoryBudget(long memoryBudget) {
+            this.memoryBudget = memoryBudget;
+            return this;
+        }
+
+        /**
+         * @param delimiter delimiter between the records, which is encoded as UTF-8 (defaults to RandomGenerator.DEFAULT_DELIMITER)
+         * @return this Builder object
+         */
+        public Builder delimiter(String delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * @param tempDirectory directory to create the bucket files in (defaults to the java.io.tmpdir directory)
+         * @return this Builder object
+         */
+        public Builder tempDirectory(Path tempDirectory) {
+            this.tempDirectory = tempDirectory;
+            return this;
+        }
+
+        /**
+         * @param randomSource source of randomness to use (defaults to RandomSource.threadLocal())
+         * @return this Builder object
+         */
+        public Builder randomSource(RandomSource randomSource) {
+            this.randomSource = randomSource;
+            return this;
+        }
+
+        /**
+         * Uses a reproducible source of randomness created from the given seed.
+         *
+         * @param seed the initial seed
+         * @return this Builder object
+         */
+        public Builder seed(long seed) {
+            this.randomSource = RandomSource.seeded(seed);
+            return this;
+        }
+
+        /**
+         * Sets the number of partitions used to find the duplicates of InputStream input, whose size is unknown in
+         * advance.  Partitions that turn out to be too large are split again, so this only affects performance.
+         * The number of partitions for a file, and the number of buckets the distinct records are shuffled in, are
+         * chosen from their size.  All are limited to the number of files whose write buffers fit in half of the
+         * memory budget.
+         *
+         * @param bucketCount the number of partitions for InputStream input (defaults to 64)
+         * @return this Builder object
+         */
+        public Builder bucketCount(int bucketCount) {
+            this.bucketCount = bucketCount;
+            return this;
+        }
+
+        /**
+         * @return new ExternalShuffler object using the settings of this Builder
+         */
+        public ExternalShuffler build() {
+            if (memoryBudget < MIN_MEMORY_BUDGET) {
+                throw new IllegalArgumentException("memoryBudget must be at least " + MIN_MEMORY_BUDGET + " bytes");
+            }
+            if (delimiter == null || delimiter.isEmpty()) {
+                throw new IllegalArgumentException("delimiter cannot be null or empty");
+            }
+            if (bucketCount < 1 || bucketCount > MAX_BUCKET_COUNT) {
+                throw new IllegalArgumentException("bucketCount must be between 1 and " + MAX_BUCKET_COUNT);
+            }
+            if (randomSource == null) {
+                throw new IllegalArgumentException("randomSource cannot be null");
+            }
+            return new ExternalShuffler(this);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.jjv.randomizer;
+
+import java.util.Arrays;
+
+/**
+ * <p>Binary indexed (Fenwick) tree of item weights, used to draw an index with
+ * probability proportional to its weight in O(log n).</p>
+ * <p>Setting a weight to zero removes the index from future draws, which makes
+ * the tree suitable for weighted sampling without replacement.</p>
+ * <p>A tree that is drawn from many times can record its updates after {@link #mark()}
+ * and undo them with {@link #rollback()}, which restores the exact weights and sums that
+ * were marked instead of adding the removed weights back with floating point error.</p>
+ */
+final class FenwickTree {
+
+    private double[] weights;
+    private double[] tree;
+    private int highestStep;
+    private double total;
+    private int positiveCount;
+
+    // nodes hold a tree position, or -(index + 1) for the weight of an index
+    private int[] journalNodes = new int[0];
+    private double[] journalValues = new double[0];
+    private int journalSize = -1;
+    private double markedTotal;
+    private int markedPositiveCount;
+    private boolean rebuiltSinceMark;
+
+    /**
+     * Builds the tree in O(n) from the given weights.
+     *
+     * @param weights non-negative weight of each index (the array is copied)
+     */
+    FenwickTree(double[] weights) {
+        this.weights = weights.clone();
+        this.tree = new double[weights.length + 1];
+        this.highestStep = weights.length == 0 ? 0 : Integer.highestOneBit(weights.length);
+        rebuild();
+    }
+
+    /**
+     * Adds indexes with a weight of zero until the tree holds the given number of indexes, which
+     * rebuilds the tree in O(n).  Callers that grow one index at a time should grow by a multiple
+     * of the current capacity, so that the rebuilds are amortized.  The tree cannot grow between
+     * {@link #mark()} and {@link #rollback()}.
+     *
+     * @param capacity number of indexes the tree must hold
+     */
+    void ensureCapacity(int capacity) {
+        if (capacity <= weights.length) {
+            return;
+        }
+        weights = Arrays.copyOf(weights, capacity);
+        tree = new double[capacity + 1];
+        highestStep = Integer.highestOneBit(capacity);
+        rebuild();
+    }
+
+    /**
+     * @return number of indexes the tree holds
+     */
+    int capacity() {
+        return weights.length;
+    }
+
+    /**
+     * @return number of indexes that currently have a positive weight
+     */
+    int size() {
+        return positiveCount;
+    }
+
+    /**
+     * @return sum of all weights
+     */
+    double total() {
+        return total;
+    }
+
+    /**
+     * @param index index to look up
+     * @return current weight of the index
+     */
+    double weight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * Replaces the weight of a single index in O(log n).
+     *
+     * @param index  index to update
+     * @param weight new non-negative weight
+     */
+    void update(int index, double weight) {
+        double delta = weight - weights[index];
+        if (weights[index] > 0) {
+            positiveCount--;
+        }
+        if (weight > 0) {
+            positiveCount++;
+        }
+        if (journalSize >= 0) {
+            journal(-(index + 1), weights[index]);
+        }
+        weights[index] = weight;
+        total += delta;
+
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            if (journalSize >= 0) {
+                journal(i, tree[i]);
+            }
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Starts recording updates, so that they can be undone by {@link #rollback()}.
+     */
+    void mark() {
+        journalSize = 0;
+        markedTotal = total;
+        markedPositiveCount = positiveCount;
+        rebuiltSinceMark = false;
+    }
+
+    /**
+     * Undoes every update since the last call to {@link #mark()} and stops recording updates.
+     * The journal is kept, so a tree that is marked and rolled back repeatedly stops allocating
+     * once the journal has grown to fit the largest draw.
+     */
+    void rollback() {
+        for (int i = journalSize - 1; i >= 0; i--) {
+            int node = journalNodes[i];
+            if (node < 0) {
+                weights[-node - 1] = journalValues[i];
+            } else {
+                tree[node] = journalValues[i];
+            }
+        }
+        journalSize = -1;
+
+        if (rebuiltSinceMark) {
+            // a rebuild replaced nodes that were never journaled, so the sums are recomputed from the restored weights
+            rebuild();
+        } else {
+            total = markedTotal;
+            positiveCount = markedPositiveCount;
+        }
+    }
+
+    private void journal(int node, double value) {
+        if (journalSize == journalNodes.length) {
+            int capacity = Math.max(journalSize * 2, 64);
+            journalNodes = Arrays.copyOf(journalNodes, capacity);
+            journalValues = Arrays.copyOf(journalValues, capacity);
+        }
+        journalNodes[journalSize] = node;
+        journalValues[journalSize] = value;
+        journalSize++;
+    }
+
+    /**
+     * Draws an index with probability proportional to its weight.
+     *
+     * @param uniform a uniformly distributed value in the range [0, 1)
+     * @return the drawn index, or -1 if no index has a positive weight
+     */
+    int sample(double uniform) {
+        if (positiveCount == 0) {
+            return -1;
+        }
+
+        int index = find(uniform * total);
+        if (index >= weights.length || weights[index] <= 0) {
+            // accumulated floating point error pushed the search past the last live index
+            rebuild();
+            index = find(uniform * total);
+            while (index >= weights.length || weights[index] <= 0) {
+                index = (index >= weights.length ? weights.length : index) - 1;
+            }
+        }
+
+        return index;
+    }
+
+    private int find(double target) {
+        int position = 0;
+
+        for (int step = highestStep; step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+
+        return position;
+    }
+
+    private void rebuild() {
+        rebuiltSinceMark = true;
+        total = 0;
+        positiveCount = 0;
+
+        for (int i = 0; i < weights.length; i++) {
+            tree[i + 1] = weights[i];
+            total += weights[i];
+            if (weights[i] > 0) {
+                positiveCount++;
+            }
+        }
+
+        for (int i = 1; i < tree.length; i++) {
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
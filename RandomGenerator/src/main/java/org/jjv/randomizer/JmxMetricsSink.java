@@ -0,0 +1,145 @@
+package org.jjv.randomizer;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>MetricsSink that aggregates measurements into counters and a latency histogram, which can be
+ * read through JMX once the sink has been registered with {@link #register()}.</p>
+ * <p>Counters are LongAdder objects, so concurrent randomize calls do not contend on a single
+ * value.  The histogram uses fixed buckets from one microsecond to one second, growing by a factor
+ * of ten.</p>
+ */
+public class JmxMetricsSink implements MetricsSink, JmxMetricsSinkMBean {
+
+    /**
+     * Default ObjectName used by {@link #register()}.
+     */
+    public static final String DEFAULT_OBJECT_NAME = "org.jjv.randomizer:type=RandomGenerator,name=metrics";
+
+    private static final long[] LATENCY_BUCKET_BOUNDS_NANOS = { 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L,
+            1000000000L };
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0L);
+    private final LongAdder[] latencyHistogram = new LongAdder[LATENCY_BUCKET_BOUNDS_NANOS.length + 1];
+    private final LongAdder inputSize = new LongAdder();
+    private final LongAdder expandedSize = new LongAdder();
+    private final LongAdder duplicatesRemoved = new LongAdder();
+    private final LongAdder itemsReturned = new LongAdder();
+
+    public JmxMetricsSink() {
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            latencyHistogram[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Registers this sink with the platform MBeanServer using the {@link #DEFAULT_OBJECT_NAME}.
+     *
+     * @return this JmxMetricsSink object
+     * @throws JMException if the sink cannot be registered, for example because the name is already in use
+     */
+    public JmxMetricsSink register() throws JMException {
+        return register(new ObjectName(DEFAULT_OBJECT_NAME));
+    }
+
+    /**
+     * Registers this sink with the platform MBeanServer using the given objectName.
+     *
+     * @param objectName name to register the sink under
+     * @return this JmxMetricsSink object
+     * @throws JMException if the sink cannot be registered, for example because the name is already in use
+     */
+    public JmxMetricsSink register(ObjectName objectName) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return this;
+    }
+
+    @Override
+    public void record(long latencyNanos, int inputSize, long expandedSize, int duplicatesRemoved, int itemsReturned) {
+        calls.increment();
+        totalLatencyNanos.add(latencyNanos);
+        maxLatencyNanos.accumulate(latencyNanos);
+        latencyHistogram[bucketOf(latencyNanos)].increment();
+        this.inputSize.add(inputSize);
+        this.expandedSize.add(expandedSize);
+        this.duplicatesRemoved.add(duplicatesRemoved);
+        this.itemsReturned.add(itemsReturned);
+    }
+
+    private static int bucketOf(long latencyNanos) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKET_BOUNDS_NANOS.length && latencyNanos > LATENCY_BUCKET_BOUNDS_NANOS[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getTotalLatencyNanos() {
+        return totalLatencyNanos.sum();
+    }
+
+    @Override
+    public long getMaxLatencyNanos() {
+        return maxLatencyNanos.get();
+    }
+
+    @Override
+    public long[] getLatencyBucketBoundsNanos() {
+        return LATENCY_BUCKET_BOUNDS_NANOS.clone();
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[latencyHistogram.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyHistogram[i].sum();
+        }
+        return counts;
+    }
+
+    @Override
+    public long getInputSize() {
+        return inputSize.sum();
+    }
+
+    @Override
+    public long getExpandedSize() {
+        return expandedSize.sum();
+    }
+
+    @Override
+    public long getDuplicatesRemoved() {
+        return duplicatesRemoved.sum();
+    }
+
+    @Override
+    public long getItemsReturned() {
+        return itemsReturned.sum();
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        totalLatencyNanos.reset();
+        maxLatencyNanos.reset();
+        for (LongAdder bucket : latencyHistogram) {
+            bucket.reset();
+        }
+        inputSize.reset();
+        expandedSize.reset();
+        duplicatesRemoved.reset();
+        itemsReturned.reset();
+    }
+}
@@ -0,0 +1,58 @@
+package org.jjv.randomizer;
+
+/**
+ * Management interface of {@link JmxMetricsSink}.
+ */
+public interface JmxMetricsSinkMBean {
+
+    /**
+     * @return number of randomize calls recorded
+     */
+    long getCalls();
+
+    /**
+     * @return total time spent in the recorded calls, in nanoseconds
+     */
+    long getTotalLatencyNanos();
+
+    /**
+     * @return longest recorded call, in nanoseconds
+     */
+    long getMaxLatencyNanos();
+
+    /**
+     * @return upper bounds (inclusive) of the latency histogram buckets, in nanoseconds; the last
+     * bucket of the histogram counts every call slower than the last bound
+     */
+    long[] getLatencyBucketBoundsNanos();
+
+    /**
+     * @return number of calls in each latency histogram bucket
+     */
+    long[] getLatencyHistogram();
+
+    /**
+     * @return total number of input items
+     */
+    long getInputSize();
+
+    /**
+     * @return total number of entries after ratings were applied
+     */
+    long getExpandedSize();
+
+    /**
+     * @return total number of drawn items discarded as duplicates
+     */
+    long getDuplicatesRemoved();
+
+    /**
+     * @return total number of items returned
+     */
+    long getItemsReturned();
+
+    /**
+     * Sets every counter back to zero.
+     */
+    void reset();
+}
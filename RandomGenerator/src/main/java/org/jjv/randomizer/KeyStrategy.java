@@ -0,0 +1,42 @@
+package org.jjv.randomizer;
+
+/**
+ * <p>Determines which List items are considered duplicates of each other.  When randomizing a
+ * List, only the first drawn item for each key is returned.</p>
+ * <p>The key of an item is computed at most once per randomize call and is looked up in a hash
+ * set, so keys need consistent equals() and hashCode() implementations.  Besides the two
+ * strategies provided here, a key extractor can be supplied as a lambda, for example
+ * <code>Destination::getId</code>.</p>
+ *
+ * @param <T> type of the List items
+ */
+@FunctionalInterface
+public interface KeyStrategy<T> {
+
+    /**
+     * @param item List item
+     * @return the key of the item
+     */
+    Object keyOf(T item);
+
+    /**
+     * Items with the same toString() value are duplicates.  This is the default strategy.
+     *
+     * @param <T> type of the List items
+     * @return KeyStrategy using toString()
+     */
+    static <T> KeyStrategy<T> toStringKey() {
+        return Object::toString;
+    }
+
+    /**
+     * Items that are equal according to their equals() and hashCode() methods are duplicates.
+     * This avoids calling toString(), which is often expensive for domain objects.
+     *
+     * @param <T> type of the List items
+     * @return KeyStrategy using equals() and hashCode()
+     */
+    static <T> KeyStrategy<T> equalsAndHashCode() {
+        return item -> item;
+    }
+}
@@ -0,0 +1,177 @@
+package org.jjv.randomizer;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>Iterators that draw distinct items from a List one at a time, only when the next item is
+ * requested, so a consumer that stops early pays nothing for the items it never reads.</p>
+ * <p>The uniform iterator runs the same swap-remove Fisher-Yates pass as ShuffleEngine, one draw
+ * per call to next().  While few items have been drawn from a RandomAccess List, only the swapped
+ * positions are recorded; once more than 1/{@link ShuffleEngine#SPARSE_RATIO} of the List has been
+ * drawn, the remaining items are copied into an array, so every item costs O(1) amortized.</p>
+ * <p>The weighted iterator resolves every weight into a Fenwick tree when it is created, and then
+ * draws each item in O(log n).</p>
+ * <p>Items whose key has already been returned are skipped, exactly as in ShuffleEngine.  The
+ * List must not be modified while an iterator is in use.</p>
+ */
+final class LazyShuffler {
+
+    private LazyShuffler() {
+    }
+
+    /**
+     * @param candidates  List of items to draw from (left unchanged)
+     * @param keyFunction function returning the value used to detect duplicate items
+     * @param random      source of randomness for the iterator
+     * @param <E>         type of the items being drawn
+     * @return new Iterator returning the distinct items of candidates in uniformly random order
+     */
+    static <E> Iterator<E> uniform(List<E> candidates, Function<? super E, ?> keyFunction, RandomSource random) {
+        return new UniformIterator<E>(candidates, keyFunction, random);
+    }
+
+    /**
+     * @param candidates  List of items to draw from (left unchanged)
+     * @param weights     weight of each candidate, in the same order as the candidates
+     * @param keyFunction function returning the value used to detect duplicate items
+     * @param random      source of randomness for the iterator
+     * @param <E>         type of the items being drawn
+     * @return new Iterator returning the distinct items of candidates in weighted random order
+     */
+    static <E> Iterator<E> weighted(List<E> candidates, double[] weights, Function<? super E, ?> keyFunction,
+                                    RandomSource random) {
+        return new WeightedIterator<E>(candidates, weights, keyFunction, random);
+    }
+
+    private abstract static class DistinctIterator<E> implements Iterator<E> {
+        private final Function<? super E, ?> keyFunction;
+        private final Set<Object> drawnKeys = new HashSet<Object>();
+        private E next;
+        private boolean ready;
+
+        DistinctIterator(Function<? super E, ?> keyFunction) {
+            this.keyFunction = keyFunction;
+        }
+
+        abstract boolean hasMoreCandidates();
+
+        abstract E nextCandidate();
+
+        @Override
+        public boolean hasNext() {
+            while (!ready && hasMoreCandidates()) {
+                E candidate = nextCandidate();
+                if (drawnKeys.add(keyFunction.apply(candidate))) {
+                    next = candidate;
+                    ready = true;
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E item = next;
+            next = null;
+            ready = false;
+            return item;
+        }
+    }
+
+    private static final class UniformIterator<E> extends DistinctIterator<E> {
+        private final List<E> candidates;
+        private final RandomSource random;
+        private final int denseThreshold;
+        private Map<Integer, Integer> swappedPositions;
+        private Object[] pool;
+        private int remaining;
+
+        UniformIterator(List<E> candidates, Function<? super E, ?> keyFunction, RandomSource random) {
+            super(keyFunction);
+            this.candidates = candidates;
+            this.random = random;
+            this.remaining = candidates.size();
+            this.denseThreshold = remaining - remaining / ShuffleEngine.SPARSE_RATIO;
+            if (candidates instanceof RandomAccess) {
+                swappedPositions = new HashMap<Integer, Integer>();
+            } else {
+                pool = candidates.toArray();
+            }
+        }
+
+        @Override
+        boolean hasMoreCandidates() {
+            return remaining > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        E nextCandidate() {
+            if (pool == null && remaining < denseThreshold) {
+                densify();
+            }
+
+            int winner = remaining == 1 ? 0 : random.nextInt(remaining);
+            remaining--;
+
+            if (pool != null) {
+                E item = (E) pool[winner];
+                pool[winner] = pool[remaining];
+                pool[remaining] = null;
+                return item;
+            }
+
+            Integer swappedWinner = swappedPositions.get(winner);
+            Integer swappedLast = swappedPositions.remove(remaining);
+            if (winner != remaining) {
+                swappedPositions.put(winner, swappedLast != null ? swappedLast : remaining);
+            }
+            return candidates.get(swappedWinner != null ? swappedWinner : winner);
+        }
+
+        private void densify() {
+            pool = new Object[remaining];
+            for (int i = 0; i < remaining; i++) {
+                Integer swapped = swappedPositions.get(i);
+                pool[i] = candidates.get(swapped != null ? swapped : i);
+            }
+            swappedPositions = null;
+        }
+    }
+
+    private static final class WeightedIterator<E> extends DistinctIterator<E> {
+        private final List<E> candidates;
+        private final FenwickTree fenwickTree;
+        private final RandomSource random;
+
+        WeightedIterator(List<E> candidates, double[] weights, Function<? super E, ?> keyFunction, RandomSource random) {
+            super(keyFunction);
+            this.candidates = candidates;
+            this.fenwickTree = new FenwickTree(weights);
+            this.random = random;
+        }
+
+        @Override
+        boolean hasMoreCandidates() {
+            return fenwickTree.size() > 0;
+        }
+
+        @Override
+        E nextCandidate() {
+            int winner = fenwickTree.sample(random.nextDouble());
+            fenwickTree.update(winner, 0);
+            return candidates.get(winner);
+        }
+    }
+}
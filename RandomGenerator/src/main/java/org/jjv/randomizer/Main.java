@@ -1,28 +1,64 @@
 package org.jjv.randomizer;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.yaml.snakeyaml.Yaml;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Map;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
 
 public class Main {
-    final static Logger logger = LogManager.getLogger(Main.class);
+    private static final String DEBUG_OPTION = "-debug";
+    private static final String NATIVE_IMAGE_PROPERTY = "org.graalvm.nativeimage.imagecode";
 
     /**
      * <h3>CLI for RandomGenerator</h3>
-     * <p>Usage: java -jar random-generator-version listString [options]</p>
+     * <p>Usage: java -jar random-generator-version listString [options]<br>
+     * or: java -jar random-generator-version -file path [options]<br>
+     * or: java -jar random-generator-version -batch path [options]<br>
+     * or: java -jar random-generator-version -serve port</p>
      * <p>where:</p>
      * <ul>
      * <li>listString = a concatenated list using either the default delimiter (~~~) or the value of the delimiterString provided.</li>
      * </ul>
      * <p>options:</p>
      * <ul>
-     * <li>-delimiter = the custom delimiter to use</li>
+     * <li>-delimiter = the custom delimiter to use (with -file and -batch, \n, \r and \t can be used for line breaks and tabs)</li>
      * <li>-returnSize = the number of elements to return</li>
+     * <li>-seed = the seed to use, so the same randomization can be repeated</li>
+     * <li>-file = the file whose delimited records are randomized instead of listString (- reads standard input);
+     * like listString, duplicate records are written once, and only the randomized records are written; needs up to
+     * 27 bytes of heap per record, so files with more records than fit in the heap need -memory</li>
+     * <li>-out = the file to write the randomized -file records to (defaults to standard output)</li>
+     * <li>-memory = shuffles the -file records through temporary files, using at most this much memory (such as 512m);
+     * used for files that are too large to memory-map</li>
+     * <li>-serve = runs a randomizer server on this loopback port (0 for any free port) until it is stopped; requests are
+     * tab-separated lines of randomize, listString, delimiter, returnSize and seed (see RandomizerServer)</li>
+     * <li>-connect = sends listString to the randomizer server on this loopback port, writing only the randomized string</li>
+     * <li>-batch = the file whose lines are each randomized as a separate listString (- reads standard input);
+     * one randomized line is written per input line, in the same order</li>
+     * <li>-threads = the number of threads to randomize the -batch lines on (defaults to 1)</li>
+     * <li>-debug = writes debug logging; this option does not take a value</li>
      * </ul>
      * <p>examples:</p>
      * <ul>
@@ -38,131 +74,421 @@ public class Main {
      * <li>java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^ -returnSize 3<br>
      * Randomizes a list of five elements using a custom delimiter (^^), returning only three elements
      * </li>
+     * <li>java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -seed 42<br>
+     * Randomizes a list of five elements using the default delimiter (~~~), returning the same order every time seed 42 is used
+     * </li>
+     * <li>java -jar random-generator-version -file lines.txt -delimiter \n -out shuffled.txt<br>
+     * Randomizes the lines of lines.txt, writing them to shuffled.txt
+     * </li>
+     * <li>java -jar random-generator-version -file - -delimiter \n -memory 512m<br>
+     * Randomizes the lines read from standard input, using temporary files and at most 512 MB of memory
+     * </li>
+     * <li>java -jar random-generator-version -serve 7070<br>
+     * Runs a randomizer server on port 7070, so that later calls do not pay for JVM startup
+     * </li>
+     * <li>java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -connect 7070<br>
+     * Randomizes a list of five elements using the randomizer server on port 7070
+     * </li>
+     * <li>java -jar random-generator-version -batch lists.txt -delimiter , -returnSize 3 -threads 4 -out samples.txt<br>
+     * Randomizes every comma-separated line of lists.txt on four threads, writing three elements per line to samples.txt
+     * </li>
      * </ul>
      *
-     * @param args requires at least the listString object, but can also include -delimiter and -returnSize run-time parameters as well
-     * @throws FileNotFoundException a File Not Found Exception will be returned if the properties.yml file does not exist
+     * @param args requires either the listString object, the -file parameter, the -batch parameter or the -serve parameter,
+     *             but can also include -delimiter, -returnSize, -seed, -out, -memory, -connect, -threads and -debug run-time
+     *             parameters as well
+     * @throws FileNotFoundException a File Not Found Exception will be returned if the version.properties file does not exist
      */
     public static void main(String[] args) throws FileNotFoundException {
-        InputStream is = null;
-        RandomGenerator randomGenerator = new RandomGenerator();
+        String currentVersion = null;
+        boolean versionWritten = false;
+
+        boolean debug = args != null && Arrays.asList(args).contains(DEBUG_OPTION);
+        if (debug) {
+            args = withoutOption(args, DEBUG_OPTION);
+        }
+        configureLogging(debug);
 
         try {
-            ClassLoader classloader = Thread.currentThread().getContextClassLoader();
-            is = classloader.getResourceAsStream("properties.yml");
+            currentVersion = readVersion();
+            logger().debug("currentVersion = {}", currentVersion);
 
-            Yaml yaml = new Yaml();
+            String returnString = null;
+            Integer returnListSize = null;
 
-            Map<String, Object> result = (Map<String, Object>) yaml.load(is);
+            // listString is the first argument, unless only options (such as -file) are provided
+            boolean hasListString = args != null && args.length % 2 == 1;
+            boolean hasOnlyOptions = args != null && args.length > 0 && args.length % 2 == 0 && args[0].startsWith("-");
 
-            String currentVersion = result.get("version").toString();
-            logger.debug("currentVersion = " + currentVersion);
+            if (hasListString || hasOnlyOptions) {
+                logger().debug("args = {}", (Object) args);
 
-            writeMessage("", false);
-            writeMessage("RandomGenerator version " + currentVersion, true);
+                String hasCustomDelimiter = null;
+                String hasReturnListSize = null;
+                String hasSeed = null;
+                String hasFile = null;
+                String hasOut = null;
+                String hasMemory = null;
+                String hasServe = null;
+                String hasConnect = null;
+                String hasBatch = null;
+                String hasThreads = null;
 
-            String returnString = null;
-            Integer returnListSize = null;
+                for (int i = hasListString ? 1 : 0; i < args.length; i += 2) {
+                    if (args[i].equals("-delimiter")) {
+                        hasCustomDelimiter = args[i + 1];
+                    } else if (args[i].equals("-returnSize")) {
+                        hasReturnListSize = args[i + 1];
+                    } else if (args[i].equals("-seed")) {
+                        hasSeed = args[i + 1];
+                    } else if (args[i].equals("-file")) {
+                        hasFile = args[i + 1];
+                    } else if (args[i].equals("-out")) {
+                        hasOut = args[i + 1];
+                    } else if (args[i].equals("-memory")) {
+                        hasMemory = args[i + 1];
+                    } else if (args[i].equals("-serve")) {
+                        hasServe = args[i + 1];
+                    } else if (args[i].equals("-connect")) {
+                        hasConnect = args[i + 1];
+                    } else if (args[i].equals("-batch")) {
+                        hasBatch = args[i + 1];
+                    } else if (args[i].equals("-threads")) {
+                        hasThreads = args[i + 1];
+                    } else {
+                        throw new Exception("An error has occurred: arg " + args[i] + " is not a valid option");
+                    }
+                }
 
-            if (args != null && (args.length == 1 || args.length == 3 || args.length == 5)) {
-                logger.debug("args = " + args);
-                logger.debug("args.length = " + args.length);
+                logger().debug("hasCustomDelimiter = {}, hasReturnListSize = {}, hasSeed = {}, hasFile = {}, hasOut = {}, hasMemory = {}, "
+                        + "hasServe = {}, hasConnect = {}, hasBatch = {}, hasThreads = {}", hasCustomDelimiter, hasReturnListSize, hasSeed,
+                        hasFile, hasOut, hasMemory, hasServe, hasConnect, hasBatch, hasThreads);
 
-                if (args.length == 1) {
-                    writeMessage("Randomizing string with default delimiter (" + randomGenerator.DEFAULT_DELIMITER + ")", false);
-                    writeMessage("String to randomize:", false);
-                    writeMessage(args[0], false);
-                    returnString = randomGenerator.randomize(args[0], randomGenerator.DEFAULT_DELIMITER);
-                } else {
-                    String hasCustomDelimiter = null;
-                    String hasReturnListSize = null;
-
-                    try {
-                        if (args.length >= 3) {
-                            if (args[1].equals("-delimiter")) {
-                                hasCustomDelimiter = args[2];
-                            } else if (args[1].equals("-returnSize")) {
-                                hasReturnListSize = args[2];
-                            } else {
-                                throw new Exception("An error has occurred: arg " + args[1] + " is not a valid option");
-                            }
-                        }
-
-                        if (args.length == 5) {
-                            if (args[3].equals("-delimiter")) {
-                                hasCustomDelimiter = args[4];
-                            } else if (args[3].equals("-returnSize")) {
-                                hasReturnListSize = args[4];
-                            } else {
-                                throw new Exception("An error has occurred: arg " + args[3] + " is not a valid option");
-                            }
-                        }
-
-                        logger.debug("hasCustomDelimiter = " + hasCustomDelimiter);
-                        logger.debug("hasReturnListSize = " + hasReturnListSize);
-
-                        if (hasReturnListSize != null) {
-                            returnListSize = new Integer(hasReturnListSize);
-                        }
-
-                        if (hasCustomDelimiter != null && hasReturnListSize != null) {
-                            writeMessage("Randomizing string with custom delimiter (" + hasCustomDelimiter
-                                    + "), returning only " + returnListSize.intValue() + " elements", false);
-                            writeMessage("String to randomize:", false);
-                            writeMessage(args[0], false);
-                            returnString = randomGenerator.randomize(args[0], hasCustomDelimiter, returnListSize.intValue());
-                        } else if (hasCustomDelimiter != null) {
-                            writeMessage("Randomizing string with custom delimiter (" + hasCustomDelimiter + ")", false);
-                            writeMessage("String to randomize:", false);
-                            writeMessage(args[0], false);
-                            returnString = randomGenerator.randomize(args[0], hasCustomDelimiter);
-                        } else if (hasReturnListSize != null) {
-                            writeMessage("Randomizing string with default delimiter (" + randomGenerator.DEFAULT_DELIMITER
-                                    + "), returning only " + hasReturnListSize + " elements", false);
-                            writeMessage("String to randomize:", false);
-                            writeMessage(args[0], false);
-                            returnString = randomGenerator.randomize(args[0], randomGenerator.DEFAULT_DELIMITER, returnListSize.intValue());
-                        }
-
-                    } catch (Exception e) {
-                        throw e;
+                if (hasServe != null) {
+                    if (args.length != 2) {
+                        throw new Exception("An error has occurred: -serve cannot be combined with listString or other options");
+                    }
+                    try (RandomizerServer server = new RandomizerServer(Integer.parseInt(hasServe), currentVersion)) {
+                        writeVersion(currentVersion);
+                        versionWritten = true;
+                        writeMessage("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getPort(), true);
+                        server.serve();
                     }
+                    return;
                 }
 
-                logger.debug("returnString = " + returnString);
+                if (hasBatch != null && (hasListString || hasFile != null)) {
+                    throw new Exception("An error has occurred: -batch cannot be combined with listString or -file");
+                }
+                if (hasBatch == null && hasListString == (hasFile != null)) {
+                    throw new Exception("An error has occurred: either listString or -file must be provided");
+                }
+                if (hasOut != null && hasFile == null && hasBatch == null) {
+                    throw new Exception("An error has occurred: -out can only be used with -file or -batch");
+                }
+                if (hasMemory != null && hasFile == null) {
+                    throw new Exception("An error has occurred: -memory can only be used with -file");
+                }
+                if (hasThreads != null && hasBatch == null) {
+                    throw new Exception("An error has occurred: -threads can only be used with -batch");
+                }
+                if (hasConnect != null && !hasListString) {
+                    throw new Exception("An error has occurred: -connect can only be used with listString");
+                }
+
+                if (hasReturnListSize != null) {
+                    returnListSize = new Integer(hasReturnListSize);
+                }
+
+                RandomSource randomSource = hasSeed != null ? RandomSource.seeded(Long.parseLong(hasSeed)) : RandomSource.threadLocal();
+
+                String delimiter = hasCustomDelimiter != null ? hasCustomDelimiter : RandomGenerator.DEFAULT_DELIMITER;
+                // records and lines are usually separated by line breaks or tabs, which are hard to pass as arguments
+                String recordDelimiter = hasCustomDelimiter != null ? unescape(hasCustomDelimiter) : RandomGenerator.DEFAULT_DELIMITER;
+
+                if (hasFile != null) {
+                    // the randomized records are the only output, so that they can be piped
+                    randomizeFile(hasFile, hasOut, recordDelimiter, returnListSize != null ? returnListSize.intValue() : 0, randomSource,
+                            hasMemory != null ? parseSize(hasMemory) : null);
+                    return;
+                }
+
+                if (hasBatch != null) {
+                    // one randomized line per input line is the only output, so that it can be piped
+                    randomizeBatch(hasBatch, hasOut, recordDelimiter, returnListSize != null ? returnListSize.intValue() : 0, randomSource,
+                            hasThreads != null ? Integer.parseInt(hasThreads) : 1);
+                    return;
+                }
+
+                if (hasConnect != null) {
+                    // only the randomized string is written, so that it can be captured by scripts
+                    writeMessage(RandomizerClient.randomize(Integer.parseInt(hasConnect), args[0], delimiter, returnListSize, hasSeed), false);
+                    return;
+                }
+
+                RandomGenerator<String> randomGenerator = new RandomGenerator<String>(randomSource);
+
+                writeVersion(currentVersion);
+                versionWritten = true;
+
+                StringBuilder description = new StringBuilder("Randomizing string with ");
+                description.append(hasCustomDelimiter != null ? "custom" : "default");
+                description.append(" delimiter (").append(hasCustomDelimiter != null ? hasCustomDelimiter : delimiter).append(")");
+                if (returnListSize != null) {
+                    description.append(", returning only ").append(returnListSize.intValue()).append(" elements");
+                }
+                if (hasSeed != null) {
+                    description.append(", using seed ").append(hasSeed);
+                }
+
+                writeMessage(description.toString(), false);
+                writeMessage("String to randomize:", false);
+                writeMessage(args[0], false);
+
+                if (returnListSize != null) {
+                    returnString = randomGenerator.randomize(args[0], delimiter, returnListSize.intValue());
+                } else {
+                    returnString = randomGenerator.randomize(args[0], delimiter);
+                }
+
+                logger().debug("returnString = {}", returnString);
 
                 writeMessage("Randomized string:", false);
                 writeMessage(returnString, false);
 
             } else {
-                getHelpText(randomGenerator.DEFAULT_DELIMITER);
+                writeVersion(currentVersion);
+                getHelpText(RandomGenerator.DEFAULT_DELIMITER);
             }
         } catch (Exception e) {
+            if (!versionWritten) {
+                writeVersion(currentVersion);
+            }
             writeMessage("An unexpected error occurred.", true);
             writeMessage(e.getMessage(), true);
-            getHelpText(randomGenerator.DEFAULT_DELIMITER);
+            getHelpText(RandomGenerator.DEFAULT_DELIMITER);
+        }
+
+    }
+
+    /**
+     * <p>Most runs of the CLI randomize a short list, so starting log4j-core (which reads and parses
+     * log4j2.xml) costs more than the randomization itself.  Unless -debug is provided, the simple
+     * logger from log4j-api is used instead, which writes errors to standard error without any
+     * configuration.  The logger context factory is chosen the first time a logger is requested, so
+     * this must run before any class with a logger is initialized; an explicit
+     * log4j2.loggerContextFactory system property is left unchanged, and -debug has no effect when
+     * that property selects a context factory other than log4j-core.  The property is only set when
+     * it is unset, and stays set for the rest of the JVM, so code (and tests) calling main() in-process
+     * should clear it afterwards.</p>
+     * <p>A native executable (built with the native profile) always uses the simple logger, since
+     * log4j-core finds its plugins by reflection; -debug only lowers its level to DEBUG.</p>
+     *
+     * @param debug true to write debug logging
+     */
+    private static void configureLogging(boolean debug) {
+        boolean nativeImage = System.getProperty(NATIVE_IMAGE_PROPERTY) != null;
+
+        if (debug && !nativeImage) {
+            if (LogManager.getContext(false) instanceof LoggerContext) {
+                Configurator.setRootLevel(Level.DEBUG);
+            }
+            return;
+        }
+        if (System.getProperty(LogManager.FACTORY_PROPERTY_NAME) == null) {
+            System.setProperty(LogManager.FACTORY_PROPERTY_NAME, "org.apache.logging.log4j.simple.SimpleLoggerContextFactory");
+        }
+        if (debug) {
+            System.setProperty("org.apache.logging.log4j.simplelog.level", Level.DEBUG.name());
+        }
+    }
+
+    private static Logger logger() {
+        return LoggerHolder.logger;
+    }
+
+    /**
+     * Holds the logger of Main, so that it is only created after configureLogging() has run.
+     */
+    private static final class LoggerHolder {
+        final static Logger logger = LogManager.getLogger(Main.class);
+    }
+
+    private static String[] withoutOption(String[] args, String option) {
+        List<String> remaining = new ArrayList<String>(Arrays.asList(args));
+        remaining.removeAll(Arrays.asList(option));
+        return remaining.toArray(new String[remaining.size()]);
+    }
+
+    /**
+     * Reads the version from version.properties, which is a single key=value line, instead of
+     * loading a YAML parser at startup.
+     *
+     * @return current version of the CLI
+     * @throws IOException if the version.properties file cannot be read
+     */
+    static String readVersion() throws IOException {
+        try (InputStream is = Main.class.getResourceAsStream("/version.properties")) {
+            if (is == null) {
+                throw new FileNotFoundException("version.properties");
+            }
+            Properties properties = new Properties();
+            properties.load(is);
+            return properties.getProperty("version");
+        }
+    }
+
+    private static void randomizeFile(String fileName, String outName, String delimiter, int returnSize, RandomSource randomSource,
+                                      Long memoryBudget) throws IOException {
+        OutputStream out = new BufferedOutputStream(outName != null ? Files.newOutputStream(Paths.get(outName)) : System.out, 1 << 16);
+
+        try {
+            long written;
+            if (memoryBudget != null) {
+                ExternalShuffler externalShuffler = ExternalShuffler.builder().memoryBudget(memoryBudget.longValue())
+                        .delimiter(delimiter).randomSource(randomSource).build();
+                written = fileName.equals("-") ? externalShuffler.shuffle(System.in, out, returnSize)
+                        : externalShuffler.shuffle(Paths.get(fileName), out, returnSize);
+            } else {
+                written = mapFile(fileName, delimiter, returnSize, randomSource, out);
+            }
+            logger().debug("{} records written", written);
+        } finally {
+            if (outName != null) {
+                out.close();
+            } else {
+                out.flush();
+            }
+        }
+    }
+
+    private static void randomizeBatch(String fileName, String outName, String delimiter, int returnSize, RandomSource randomSource,
+                                       int threads) throws IOException {
+        // standard input and output are not opened here, so they are left open (a null resource is not closed)
+        try (InputStream fileIn = fileName.equals("-") ? null : Files.newInputStream(Paths.get(fileName));
+             OutputStream fileOut = outName != null ? Files.newOutputStream(Paths.get(outName)) : null) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(fileIn != null ? fileIn : System.in,
+                    StandardCharsets.UTF_8), 1 << 16);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(fileOut != null ? fileOut : System.out,
+                    StandardCharsets.UTF_8), 1 << 16);
+
+            long written = BatchLineRandomizer.randomize(reader, writer, delimiter, returnSize, randomSource, threads);
+            writer.flush();
+            logger().debug("{} lines written", written);
+        }
+    }
+
+    private static int mapFile(String fileName, String delimiter, int returnSize, RandomSource randomSource, OutputStream out)
+            throws IOException {
+        Path input = fileName.equals("-") ? spoolStandardInput() : Paths.get(fileName);
+
+        try {
+            return MappedFileShuffler.shuffle(input, delimiter.getBytes(StandardCharsets.UTF_8), returnSize, randomSource.split(), out);
         } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (IOException ioe) {
-                    logger.error(ioe.getMessage());
-                    writeMessage("An error occurred while trying to read the properties.yml file.", true);
-                    writeMessage(ioe.getMessage(), true);
+            if (fileName.equals("-")) {
+                Files.deleteIfExists(input);
+            }
+        }
+    }
+
+    /**
+     * @param size number of bytes, optionally followed by k, m or g
+     * @return number of bytes
+     */
+    static long parseSize(String size) {
+        String lowerCaseSize = size.trim().toLowerCase();
+        int shift = 0;
+        switch (lowerCaseSize.isEmpty() ? ' ' : lowerCaseSize.charAt(lowerCaseSize.length() - 1)) {
+        case 'k':
+            shift = 10;
+            break;
+        case 'm':
+            shift = 20;
+            break;
+        case 'g':
+            shift = 30;
+            break;
+        }
+        return Long.parseLong(shift > 0 ? lowerCaseSize.substring(0, lowerCaseSize.length() - 1) : lowerCaseSize) << shift;
+    }
+
+    private static Path spoolStandardInput() throws IOException {
+        // standard input cannot be memory-mapped, so it is copied to a temporary file first
+        Path spoolFile = Files.createTempFile("random-generator-", ".spool");
+        try {
+            Files.copy(System.in, spoolFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spoolFile);
+            throw e;
+        }
+        return spoolFile;
+    }
+
+    /**
+     * Replaces the \n, \r, \t and \\ escape sequences, which are hard to pass as command-line
+     * arguments, with the characters they represent.
+     *
+     * @param delimiter delimiter as provided on the command line
+     * @return delimiter with its escape sequences replaced
+     */
+    static String unescape(String delimiter) {
+        StringBuilder sb = new StringBuilder(delimiter.length());
+        for (int i = 0; i < delimiter.length(); i++) {
+            char c = delimiter.charAt(i);
+            if (c == '\\' && i + 1 < delimiter.length()) {
+                switch (delimiter.charAt(i + 1)) {
+                case 'n':
+                    c = '\n';
+                    i++;
+                    break;
+                case 'r':
+                    c = '\r';
+                    i++;
+                    break;
+                case 't':
+                    c = '\t';
+                    i++;
+                    break;
+                case '\\':
+                    i++;
+                    break;
                 }
             }
+            sb.append(c);
         }
+        return sb.toString();
+    }
 
+    private static void writeVersion(String currentVersion) {
+        writeMessage("", false);
+        writeMessage("RandomGenerator version " + currentVersion, true);
     }
 
     private static void getHelpText(String defaultDelimiter) {
-        writeMessage("Usage: java -jar random-generator-version listString [options]", true);
+        writeMessage("Usage: java -jar random-generator-version listString [options]", false);
+        writeMessage("       java -jar random-generator-version -file path [options]", false);
+        writeMessage("       java -jar random-generator-version -batch path [options]", false);
+        writeMessage("       java -jar random-generator-version -serve port", true);
         writeMessage("  where:", false);
         writeMessage("    listString = a concatenated list using either the default delimiter (" + defaultDelimiter + ")", false);
         writeMessage("                 or the value of the delimiterString provided.", true);
         writeMessage("  options:", false);
-        writeMessage("    -delimiter = the custom delimiter to use.", true);
+        writeMessage("    -delimiter = the custom delimiter to use (with -file and -batch, \\n, \\r and \\t can be used for line breaks and tabs).", true);
         writeMessage("    -returnSize = the number of elements to return.", true);
+        writeMessage("    -seed = the seed to use, so the same randomization can be repeated.", true);
+        writeMessage("    -file = the file whose delimited records are randomized instead of listString (- reads standard input).", false);
+        writeMessage("            Like listString, duplicate records are written once, and only the randomized records are written.", false);
+        writeMessage("            Needs up to 27 bytes of heap per record; files with more records than fit in the heap need -memory.", true);
+        writeMessage("    -out = the file to write the randomized -file records to (defaults to standard output).", true);
+        writeMessage("    -memory = shuffles the -file records through temporary files, using at most this much memory (such as 512m).", false);
+        writeMessage("              Used for files that are too large to memory-map.", true);
+        writeMessage("    -serve = runs a randomizer server on this loopback port (0 for any free port) until it is stopped.", false);
+        writeMessage("             Requests are tab-separated lines of randomize, listString, delimiter, returnSize and seed.", true);
+        writeMessage("    -connect = sends listString to the randomizer server on this loopback port, writing only the randomized string.", true);
+        writeMessage("    -batch = the file whose lines are each randomized as a separate listString (- reads standard input).", false);
+        writeMessage("             One randomized line is written per input line, in the same order.", true);
+        writeMessage("    -threads = the number of threads to randomize the -batch lines on (defaults to 1).", true);
+        writeMessage("    -debug = writes debug logging. This option does not take a value.", true);
         writeMessage("  examples:", false);
         writeMessage("    java -jar random-generator-version One~~~Two~~~Three~~Four~~~Five~~~", false);
         writeMessage("      Randomizes a list of five elements using the default delimiter (" + defaultDelimiter + ")", true);
@@ -172,6 +498,18 @@ public class Main {
         writeMessage("      Randomizes a list of five elements using the default delimiter (" + defaultDelimiter + "), returning only three elements", true);
         writeMessage("    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^ -returnSize 3", false);
         writeMessage("      Randomizes a list of five elements using a custom delimiter (^^), returning only three elements", true);
+        writeMessage("    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -seed 42", false);
+        writeMessage("      Randomizes a list of five elements using the default delimiter (" + defaultDelimiter + "), returning the same order every time seed 42 is used", true);
+        writeMessage("    java -jar random-generator-version -file lines.txt -delimiter \\n -out shuffled.txt", false);
+        writeMessage("      Randomizes the lines of lines.txt, writing them to shuffled.txt", true);
+        writeMessage("    java -jar random-generator-version -file - -delimiter \\n -memory 512m", false);
+        writeMessage("      Randomizes the lines read from standard input, using temporary files and at most 512 MB of memory", true);
+        writeMessage("    java -jar random-generator-version -serve 7070", false);
+        writeMessage("      Runs a randomizer server on port 7070, so that later calls do not pay for JVM startup", true);
+        writeMessage("    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -connect 7070", false);
+        writeMessage("      Randomizes a list of five elements using the randomizer server on port 7070", true);
+        writeMessage("    java -jar random-generator-version -batch lists.txt -delimiter , -returnSize 3 -threads 4 -out samples.txt", false);
+        writeMessage("      Randomizes every comma-separated line of lists.txt on four threads, writing three elements per line to samples.txt", true);
     }
 
     private static void writeMessage(String message, boolean newLine) {
@@ -0,0 +1,283 @@
+package org.jjv.randomizer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * <p>Randomizes the delimited records of a file without decoding them into Strings.</p>
+ * <p>The file is memory-mapped in segments of up to 1 GB and scanned for the delimiter bytes,
+ * recording only the start offset, length and hash of every non-empty record (16 bytes per
+ * record).  The segments are copied to a small reused window with bulk reads, and every record is
+ * hashed while it is scanned, so the file is only read once before the records are written.
+ * The offsets are shuffled with a partial Fisher-Yates pass, and the selected records are copied
+ * from the mapped segments to the output, each followed by the delimiter.</p>
+ * <p>Like the String randomize methods, only one copy of duplicate records is written.  Before
+ * the shuffle, every record's hash is looked up in an open-addressing table and the record is
+ * compared with the records of the same hash, the same way DelimitedTokens groups its tokens, and
+ * only the first copy of each record is kept.  The table is sized for a load factor of at least
+ * three quarters, so it takes up to 11 more bytes per record while this runs.</p>
+ * <p>Because the heap needed grows with the number of records ({@value #HEAP_PER_RECORD} bytes per
+ * record at most), a file whose records cannot fit in the maximum heap fails as soon as the scan has
+ * counted that many, rather than running out of memory later; such files can be shuffled by
+ * ExternalShuffler, within a fixed memory budget.</p>
+ */
+final class MappedFileShuffler {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+    private static final int SCAN_WINDOW_SIZE = 1 << 16;
+    private static final int MAX_DISTINCT_RECORDS = 1 << 29;
+    private static final int RECORD_BYTES = 16;
+    static final int HEAP_PER_RECORD = 27;
+
+    private final MappedByteBuffer[] segments;
+    private final ByteBuffer[] views;
+    private final long size;
+    private final long maxHeap;
+    private long[] starts = new long[1024];
+    private int[] lengths = new int[1024];
+    private int[] hashes = new int[1024];
+    private int count;
+
+    private MappedFileShuffler(FileChannel channel, long maxHeap) throws IOException {
+        this.size = channel.size();
+        this.maxHeap = maxHeap;
+        this.segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+        for (int i = 0; i < segments.length; i++) {
+            long position = (long) i << SEGMENT_SHIFT;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+        }
+        this.views = new ByteBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            views[i] = segments[i].duplicate();
+        }
+    }
+
+    /**
+     * Writes the distinct records of the input file to the output in random order, each followed by the delimiter.
+     *
+     * @param input      file containing the delimited records
+     * @param delimiter  bytes separating the records, which cannot be empty
+     * @param maxResults the number of records to write (specify 0 to write all records)
+     * @param random     source of randomness for this shuffle
+     * @param out        stream to write the records to, which is neither flushed nor closed
+     * @return number of distinct records written
+     * @throws IOException if the input cannot be read, has more records than can be held in memory, or the output cannot be written
+     */
+    static int shuffle(Path input, byte[] delimiter, int maxResults, RandomSource random, OutputStream out) throws IOException {
+        return shuffle(input, delimiter, maxResults, random, out, Runtime.getRuntime().maxMemory());
+    }
+
+    /**
+     * Same as {@link #shuffle(Path, byte[], int, RandomSource, OutputStream)}, failing when the records need more
+     * than maxHeap bytes of heap.
+     */
+    static int shuffle(Path input, byte[] delimiter, int maxResults, RandomSource random, OutputStream out, long maxHeap)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            MappedFileShuffler shuffler = new MappedFileShuffler(channel, maxHeap);
+            shuffler.scan(delimiter);
+            shuffler.removeDuplicates();
+
+            int limit = maxResults > 0 ? Math.min(maxResults, shuffler.count) : shuffler.count;
+            shuffler.shuffle(limit, random);
+            shuffler.write(limit, delimiter, out);
+            return limit;
+        }
+    }
+
+    private void scan(byte[] delimiter) throws IOException {
+        // a match ends on the last delimiter byte, so the tail bytes before it are kept from the previous window
+        int tail = delimiter.length - 1;
+        byte last = delimiter[tail];
+        byte[] window = new byte[SCAN_WINDOW_SIZE + tail];
+        long recordStart = 0;
+        int hash = 0;
+        int kept = 0;
+
+        for (long windowStart = 0; windowStart < size; ) {
+            // the segment size is a multiple of the window size, so a window never spans two segments
+            int length = (int) Math.min(SCAN_WINDOW_SIZE, size - windowStart);
+            read((int) (windowStart >>> SEGMENT_SHIFT), (int) (windowStart & (SEGMENT_SIZE - 1)), window, kept, length);
+            int end = kept + length;
+
+            // window[i] holds the byte at base + i; a delimiter ending at i cannot start before recordStart, and the
+            // byte at i - tail is hashed once it is known not to start a delimiter
+            long base = windowStart - kept;
+            int i = (int) Math.max(kept, Math.min(end, recordStart - base + tail));
+            while (i < end) {
+                if (window[i] == last && endsWith(window, i, delimiter)) {
+                    add(recordStart, base + i - tail, hash);
+                    hash = 0;
+                    recordStart = base + i + 1;
+                    i += 1 + tail;
+                } else {
+                    hash = 31 * hash + window[i - tail];
+                    i++;
+                }
+            }
+
+            kept = Math.min(tail, end);
+            System.arraycopy(window, end - kept, window, 0, kept);
+            windowStart += length;
+        }
+
+        // the tail bytes of the final record were never followed by a delimiter, so they are not hashed yet
+        for (long position = Math.max(recordStart, size - kept); position < size; position++) {
+            hash = 31 * hash + window[(int) (position - (size - kept))];
+        }
+        add(recordStart, size, hash);
+    }
+
+    private static boolean endsWith(byte[] window, int end, byte[] delimiter) {
+        for (int i = 0, offset = end - delimiter.length + 1; i < delimiter.length - 1; i++) {
+            if (window[offset + i] != delimiter[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void read(int segment, int position, byte[] buffer, int offset, int length) {
+        ByteBuffer view = views[segment];
+        view.position(position);
+        view.get(buffer, offset, length);
+    }
+
+    private void add(long start, long end, int hash) throws IOException {
+        if (start == end) {
+            return;
+        }
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("record at offset " + start + " is larger than " + Integer.MAX_VALUE + " bytes");
+        }
+        if (count == starts.length) {
+            if (count == Integer.MAX_VALUE - 8) {
+                throw new IOException("file contains more than " + count + " records");
+            }
+            int capacity = (int) Math.min(count + (long) (count >> 1), Integer.MAX_VALUE - 8L);
+            // the old arrays are copied to the new ones, so both are held at once
+            requireHeap((long) (count + capacity) * RECORD_BYTES);
+            requireHeap((long) count * HEAP_PER_RECORD);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+        }
+        starts[count] = start;
+        lengths[count] = (int) (end - start);
+        hashes[count] = hash;
+        count++;
+    }
+
+    private void removeDuplicates() throws IOException {
+        if (count > MAX_DISTINCT_RECORDS) {
+            throw new IOException("file contains more than " + MAX_DISTINCT_RECORDS + " records, use -memory to shuffle it");
+        }
+
+        // table entries hold the index of the first copy of a record plus one, so that zero marks an empty slot
+        int tableSize = Integer.highestOneBit(Math.max(count + count / 3, 1)) << 1;
+        requireHeap((long) starts.length * RECORD_BYTES + (long) tableSize * 4);
+        int[] table = new int[tableSize];
+        int mask = table.length - 1;
+        int distinct = 0;
+        byte[] recordBytes = new byte[COPY_BUFFER_SIZE];
+        byte[] otherBytes = new byte[COPY_BUFFER_SIZE];
+
+        for (int record = 0; record < count; record++) {
+            int hash = hashes[record];
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            boolean duplicate = false;
+            while (table[slot] != 0) {
+                int other = table[slot] - 1;
+                if (hashes[other] == hash && lengths[other] == lengths[record]
+                        && sameBytes(starts[record], starts[other], lengths[record], recordBytes, otherBytes)) {
+                    duplicate = true;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (!duplicate) {
+                // the kept records are compacted to the front, in file order
+                starts[distinct] = starts[record];
+                lengths[distinct] = lengths[record];
+                hashes[distinct] = hash;
+                table[slot] = ++distinct;
+            }
+        }
+        count = distinct;
+    }
+
+    private void requireHeap(long bytes) throws IOException {
+        if (bytes > maxHeap) {
+            throw new IOException("the " + count + " records found so far need more than the " + (maxHeap >> 20)
+                    + " MB maximum heap (up to " + HEAP_PER_RECORD + " bytes per record), use -memory to shuffle the file");
+        }
+    }
+
+    private boolean sameBytes(long start, long otherStart, int length, byte[] recordBytes, byte[] otherBytes) {
+        for (int offset = 0; offset < length; ) {
+            int chunk = Math.min(length - offset, recordBytes.length);
+            copy(start + offset, recordBytes, chunk);
+            copy(otherStart + offset, otherBytes, chunk);
+            for (int i = 0; i < chunk; i++) {
+                if (recordBytes[i] != otherBytes[i]) {
+                    return false;
+                }
+            }
+            offset += chunk;
+        }
+        return true;
+    }
+
+    /**
+     * Copies length bytes of the file, starting at position, to the start of buffer.
+     */
+    private void copy(long position, byte[] buffer, int length) {
+        for (int copied = 0; copied < length; ) {
+            int segment = (int) ((position + copied) >>> SEGMENT_SHIFT);
+            int segmentPosition = (int) ((position + copied) & (SEGMENT_SIZE - 1));
+            int chunk = Math.min(length - copied, segments[segment].limit() - segmentPosition);
+            read(segment, segmentPosition, buffer, copied, chunk);
+            copied += chunk;
+        }
+    }
+
+    private void shuffle(int limit, RandomSource random) {
+        // the last record of a full shuffle never needs a swap
+        int swaps = limit < count ? limit : count - 1;
+        for (int i = 0; i < swaps; i++) {
+            int j = i + random.nextInt(count - i);
+            long start = starts[i];
+            starts[i] = starts[j];
+            starts[j] = start;
+            int length = lengths[i];
+            lengths[i] = lengths[j];
+            lengths[j] = length;
+        }
+    }
+
+    private void write(int limit, byte[] delimiter, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+
+        for (int i = 0; i < limit; i++) {
+            long position = starts[i];
+            int remaining = lengths[i];
+            while (remaining > 0) {
+                int length = Math.min(remaining, buffer.length);
+                copy(position, buffer, length);
+                out.write(buffer, 0, length);
+                position += length;
+                remaining -= length;
+            }
+            out.write(delimiter);
+        }
+    }
+}
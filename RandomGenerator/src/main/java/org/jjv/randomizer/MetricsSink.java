@@ -0,0 +1,36 @@
+package org.jjv.randomizer;
+
+/**
+ * <p>Receives one measurement for every List randomize call made by a RandomGenerator.</p>
+ * <p>The default sink, {@link #noop()}, reports itself as disabled, in which case RandomGenerator
+ * does not read the clock or count anything.  {@link JmxMetricsSink} aggregates the measurements
+ * and publishes them as a JMX MBean.</p>
+ * <p>A sink may be shared by many RandomGenerator objects and threads, so implementations need to
+ * be thread-safe.</p>
+ */
+public interface MetricsSink {
+
+    /**
+     * @param latencyNanos      time spent in the randomize call, in nanoseconds
+     * @param inputSize         number of items in the List passed to the randomize call
+     * @param expandedSize      number of entries the items represent once ratings are applied, which
+     *                          is the sum of the rating weights for a rated call and the input size otherwise
+     * @param duplicatesRemoved number of drawn items discarded because an item with the same key had already been drawn
+     * @param itemsReturned     number of items in the returned List
+     */
+    void record(long latencyNanos, int inputSize, long expandedSize, int duplicatesRemoved, int itemsReturned);
+
+    /**
+     * @return false if record() should not be called, so that no measurements are taken
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    /**
+     * @return sink that records nothing
+     */
+    static MetricsSink noop() {
+        return NoopMetricsSink.INSTANCE;
+    }
+}
@@ -0,0 +1,21 @@
+package org.jjv.randomizer;
+
+/**
+ * MetricsSink that is disabled and records nothing.
+ */
+final class NoopMetricsSink implements MetricsSink {
+
+    static final NoopMetricsSink INSTANCE = new NoopMetricsSink();
+
+    private NoopMetricsSink() {
+    }
+
+    @Override
+    public void record(long latencyNanos, int inputSize, long expandedSize, int duplicatesRemoved, int itemsReturned) {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+}
@@ -0,0 +1,138 @@
+package org.jjv.randomizer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * <p>Fork/join merge shuffle for very large lists.</p>
+ * <p>The array is split in half until the pieces are no larger than the leaf size.  Each leaf is
+ * shuffled with Fisher-Yates, and two shuffled halves are merged by taking the next item from
+ * the left half with probability (items left in the left half) / (items left in both halves).
+ * Every interleaving of the two halves is equally likely, so the merged result is a uniformly
+ * random permutation.</p>
+ * <p>A RandomSource is split for both halves before they are forked, so a seeded RandomGenerator
+ * returns the same permutation no matter how the tasks are scheduled.</p>
+ */
+final class ParallelShuffler {
+
+    /**
+     * Lists up to this size, and the pieces of larger lists, are shuffled sequentially.
+     */
+    static final int LEAF_SIZE = 1 << 14;
+
+    private ParallelShuffler() {
+    }
+
+    /**
+     * Draws distinct items from the candidates list in random order, shuffling the candidates in
+     * parallel when the list is large enough for it to pay off.
+     *
+     * @param candidates   List of items to draw from (left unchanged)
+     * @param maxResults   the maximum number of items to draw (specify 0 to draw all distinct items)
+     * @param keyFunction  function returning the value used to detect duplicate items
+     * @param random       source of randomness for this draw
+     * @param forkJoinPool pool to run the shuffle in
+     * @param <E>          type of the items being drawn
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    @SuppressWarnings("unchecked")
+    static <E> List<E> draw(List<E> candidates, int maxResults, Function<? super E, ?> keyFunction, RandomSource random,
+                            ForkJoinPool forkJoinPool) {
+        if (candidates.size() <= LEAF_SIZE || ShuffleEngine.isSparse(candidates, maxResults)) {
+            return ShuffleEngine.draw(candidates, maxResults, keyFunction, random);
+        }
+
+        Object[] items = candidates.toArray();
+        shuffle(items, LEAF_SIZE, random, forkJoinPool);
+
+        int limit = maxResults > 0 ? Math.min(maxResults, items.length) : items.length;
+        List<E> results = new ArrayList<E>(limit);
+        Set<Object> drawnKeys = new HashSet<Object>();
+
+        for (int i = 0; i < items.length && results.size() < limit; i++) {
+            E item = (E) items[i];
+            if (drawnKeys.add(keyFunction.apply(item))) {
+                results.add(item);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Shuffles the given array in place.
+     *
+     * @param items        array to shuffle
+     * @param leafSize     size at which pieces are shuffled sequentially
+     * @param random       source of randomness for this shuffle
+     * @param forkJoinPool pool to run the shuffle in
+     */
+    static void shuffle(Object[] items, int leafSize, RandomSource random, ForkJoinPool forkJoinPool) {
+        forkJoinPool.invoke(new ShuffleTask(items, new Object[items.length], 0, items.length, leafSize, random));
+    }
+
+    private static final class ShuffleTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] items;
+        private final Object[] buffer;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final RandomSource random;
+
+        ShuffleTask(Object[] items, Object[] buffer, int from, int to, int leafSize, RandomSource random) {
+            this.items = items;
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                for (int i = to - 1; i > from; i--) {
+                    int j = from + random.nextInt(i - from + 1);
+                    Object item = items[i];
+                    items[i] = items[j];
+                    items[j] = item;
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            RandomSource leftRandom = random.split();
+            RandomSource rightRandom = random.split();
+            invokeAll(new ShuffleTask(items, buffer, from, middle, leafSize, leftRandom),
+                    new ShuffleTask(items, buffer, middle, to, leafSize, rightRandom));
+            merge(middle);
+        }
+
+        private void merge(int middle) {
+            System.arraycopy(items, from, buffer, from, to - from);
+
+            int left = from;
+            int right = middle;
+            int target = from;
+            while (left < middle && right < to) {
+                int leftRemaining = middle - left;
+                if (random.nextInt(leftRemaining + to - right) < leftRemaining) {
+                    items[target++] = buffer[left++];
+                } else {
+                    items[target++] = buffer[right++];
+                }
+            }
+
+            System.arraycopy(buffer, left, items, target, middle - left);
+            target += middle - left;
+            System.arraycopy(buffer, right, items, target, to - right);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>A List that has been indexed once for repeated random draws, created by
+ * {@link RandomGenerator#prepare(List)}.</p>
+ * <p>Preparing a population resolves the rating weight of every item and assigns every item a
+ * group id from its key, so that items with the same key share a group.  Each draw then works on
+ * those arrays only:</p>
+ * <ul>
+ * <li>{@link #shuffle()} and {@link #sample(Integer)} run a partial Fisher-Yates pass over a
+ * permutation of the item indexes that is kept between draws, so a draw of k items performs about
+ * k swaps no matter how large the population is.</li>
+ * <li>{@link #sampleWeighted(Integer)} draws from a Fenwick tree of the rating weights in O(log n)
+ * per item, and restores the tree afterwards by undoing the updates of the draw.</li>
+ * <li>Duplicates are suppressed by stamping the group of every drawn item with a number that is
+ * unique to the draw, so the stamps never need to be cleared.</li>
+ * </ul>
+ * <p>The draw methods that add to a given Collection allocate nothing once the population has
+ * been used for a draw of the same size.  The source of randomness is split once, when the
+ * population is prepared, and every draw continues its sequence.</p>
+ * <p>A PreparedPopulation is not thread-safe.  Create one PreparedPopulation per thread, or
+ * synchronize access to a shared one.  The population reflects the List as it was when the
+ * population was prepared; later changes to the List are not seen.</p>
+ *
+ * @param <T> type of the List items
+ */
+public final class PreparedPopulation<T> {
+
+    final static Logger logger = LogManager.getLogger(PreparedPopulation.class);
+
+    private final Object[] items;
+    private final int[] permutation;
+    private final int[] groups;
+    private final int[] groupStamps;
+    private final int groupCount;
+    private final FenwickTree fenwickTree;
+    private final long expandedSize;
+    private final RandomSource random;
+    private final MetricsSink metricsSink;
+    private int stamp;
+
+    PreparedPopulation(List<T> tList, double[] weights, Function<? super T, ?> keyFunction, RandomSource randomSource,
+                       MetricsSink metricsSink) {
+        this.items = tList.toArray();
+        this.permutation = new int[items.length];
+        this.groups = new int[items.length];
+        this.fenwickTree = new FenwickTree(weights);
+        // split once, since the population belongs to one thread; splitting a seeded or splittable source on every
+        // draw would allocate and lock
+        this.random = randomSource.split();
+        this.metricsSink = metricsSink;
+
+        Map<Object, Integer> groupIds = new HashMap<Object, Integer>();
+        double weightSum = 0;
+        for (int i = 0; i < items.length; i++) {
+            @SuppressWarnings("unchecked")
+            T item = (T) items[i];
+            Object key = keyFunction.apply(item);
+            Integer groupId = groupIds.get(key);
+            if (groupId == null) {
+                groupId = groupIds.size();
+                groupIds.put(key, groupId);
+            }
+            groups[i] = groupId;
+            permutation[i] = i;
+            weightSum += weights[i];
+        }
+        this.groupCount = groupIds.size();
+        this.groupStamps = new int[groupCount];
+        this.expandedSize = Math.round(weightSum);
+    }
+
+    /**
+     * @return number of items in the population, including duplicates
+     */
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * @return number of distinct items in the population
+     */
+    public int distinctSize() {
+        return groupCount;
+    }
+
+    /**
+     * Returns all distinct items of the population in random order.
+     *
+     * @return new List object whose order has been randomized
+     */
+    public List<T> shuffle() {
+        List<T> returnList = new ArrayList<T>(groupCount);
+        draw(groupCount, returnList);
+        return returnList;
+    }
+
+    /**
+     * Returns up to maxResults distinct items of the population in random order.
+     *
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    public List<T> sample(Integer maxResults) {
+        List<T> returnList = new ArrayList<T>(Math.min(checkMaxResults(maxResults), groupCount));
+        draw(maxResults, returnList);
+        return returnList;
+    }
+
+    /**
+     * Adds up to maxResults distinct items of the population to the target Collection, in random order.
+     *
+     * @param maxResults the maximum number of items to add (must be greater than zero)
+     * @param target     Collection to add the drawn items to, in the order they were drawn
+     * @return number of items added
+     */
+    public int sample(Integer maxResults, Collection<? super T> target) {
+        return draw(checkMaxResults(maxResults), target);
+    }
+
+    /**
+     * Returns up to maxResults distinct items of the population in weighted random order, where
+     * the chance of an item being drawn next is its rating weight divided by the sum of the rating
+     * weights not yet drawn.  Items without a rating are never drawn.
+     *
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    public List<T> sampleWeighted(Integer maxResults) {
+        List<T> returnList = new ArrayList<T>(Math.min(checkMaxResults(maxResults), groupCount));
+        drawWeighted(maxResults, returnList);
+        return returnList;
+    }
+
+    /**
+     * Adds up to maxResults distinct items of the population to the target Collection, in weighted
+     * random order.  See {@link #sampleWeighted(Integer)}.
+     *
+     * @param maxResults the maximum number of items to add (must be greater than zero)
+     * @param target     Collection to add the drawn items to, in the order they were drawn
+     * @return number of items added
+     */
+    public int sampleWeighted(Integer maxResults, Collection<? super T> target) {
+        return drawWeighted(checkMaxResults(maxResults), target);
+    }
+
+    private static int checkMaxResults(Integer maxResults) {
+        if (maxResults == null || maxResults.intValue() <= 0) {
+            throw new IllegalArgumentException("maxResults must be greater than zero when sampling");
+        }
+        return maxResults;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int draw(int maxResults, Collection<? super T> target) {
+        long startNanos = metricsSink.isEnabled() ? System.nanoTime() : 0L;
+        int drawStamp = nextStamp();
+        int limit = Math.min(maxResults, groupCount);
+        int count = 0;
+        int draws = 0;
+
+        // the permutation is left as it is after every draw, since any permutation is a valid starting point
+        while (count < limit && draws < items.length) {
+            int winner = draws + random.nextInt(items.length - draws);
+            int index = permutation[winner];
+            permutation[winner] = permutation[draws];
+            permutation[draws] = index;
+            draws++;
+
+            if (groupStamps[groups[index]] != drawStamp) {
+                groupStamps[groups[index]] = drawStamp;
+                target.add((T) items[index]);
+                count++;
+            }
+        }
+
+        finishDraw("draw", startNanos, items.length, draws, count, maxResults);
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int drawWeighted(int maxResults, Collection<? super T> target) {
+        long startNanos = metricsSink.isEnabled() ? System.nanoTime() : 0L;
+        int drawStamp = nextStamp();
+        int count = 0;
+        int draws = 0;
+
+        fenwickTree.mark();
+        try {
+            while (fenwickTree.size() > 0 && count < maxResults) {
+                int index = fenwickTree.sample(random.nextDouble());
+                fenwickTree.update(index, 0);
+                draws++;
+
+                if (groupStamps[groups[index]] != drawStamp) {
+                    groupStamps[groups[index]] = drawStamp;
+                    target.add((T) items[index]);
+                    count++;
+                }
+            }
+        } finally {
+            fenwickTree.rollback();
+        }
+
+        finishDraw("drawWeighted", startNanos, expandedSize, draws, count, maxResults);
+        return count;
+    }
+
+    private int nextStamp() {
+        if (++stamp == 0) {
+            // the stamps wrapped around, so stamps left by earlier draws could match again
+            Arrays.fill(groupStamps, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+
+    private void finishDraw(String method, long startNanos, long expanded, int draws, int count, int maxResults) {
+        if (metricsSink.isEnabled()) {
+            metricsSink.record(System.nanoTime() - startNanos, items.length, expanded, draws - count, count);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("{}({}) returned {} of {} items", method, maxResults, count, items.length);
+        }
+    }
+}
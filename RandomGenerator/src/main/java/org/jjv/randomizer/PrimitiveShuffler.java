@@ -0,0 +1,64 @@
+package org.jjv.randomizer;
+
+/**
+ * <p>Fisher-Yates shuffles over primitive arrays.</p>
+ * <p>The shuffles run in place and allocate nothing.  A partial shuffle performs only maxResults
+ * swaps, after which the first maxResults elements are a uniformly random sample of the array in
+ * random order.</p>
+ */
+final class PrimitiveShuffler {
+
+    private PrimitiveShuffler() {
+    }
+
+    /**
+     * @param values     array to shuffle in place
+     * @param maxResults the number of leading elements to randomize (specify 0 to shuffle the whole array)
+     * @param random     source of randomness for this shuffle
+     */
+    static void shuffle(int[] values, int maxResults, RandomSource random) {
+        int limit = limit(values.length, maxResults);
+        for (int i = 0; i < limit; i++) {
+            int j = i + random.nextInt(values.length - i);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * @param values     array to shuffle in place
+     * @param maxResults the number of leading elements to randomize (specify 0 to shuffle the whole array)
+     * @param random     source of randomness for this shuffle
+     */
+    static void shuffle(long[] values, int maxResults, RandomSource random) {
+        int limit = limit(values.length, maxResults);
+        for (int i = 0; i < limit; i++) {
+            int j = i + random.nextInt(values.length - i);
+            long value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    /**
+     * @param values     array to shuffle in place
+     * @param maxResults the number of leading elements to randomize (specify 0 to shuffle the whole array)
+     * @param random     source of randomness for this shuffle
+     */
+    static void shuffle(double[] values, int maxResults, RandomSource random) {
+        int limit = limit(values.length, maxResults);
+        for (int i = 0; i < limit; i++) {
+            int j = i + random.nextInt(values.length - i);
+            double value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+    }
+
+    private static int limit(int length, int maxResults) {
+        // the last element of a full shuffle never needs a swap
+        int limit = maxResults > 0 && maxResults < length ? maxResults : length - 1;
+        return Math.max(limit, 0);
+    }
+}
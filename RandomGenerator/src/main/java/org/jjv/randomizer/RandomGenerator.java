@@ -1,20 +1,41 @@
 package org.jjv.randomizer;
 
-import lombok.Data;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class RandomGenerator<T> {
 
     final static Logger logger = LogManager.getLogger(RandomGenerator.class);
     private static final Integer ZERO = new Integer("0");
 
+    /**
+     * The number of chunks a batch is divided into when it is randomized on an ExecutorService.
+     */
+    private static final int BATCH_CHUNKS = Runtime.getRuntime().availableProcessors() * 4;
+
     /**
      * Default Delimiter is equal to three tilde (~~~) characters.  This is the assumed default
      * delimiter when a delimiter is not specified.
@@ -36,6 +57,64 @@ public class RandomGenerator<T> {
      */
     public static String RATING = "rating";
 
+    private final RandomSource randomSource;
+    private final ForkJoinPool forkJoinPool;
+    private final KeyStrategy<? super T> keyStrategy;
+    private final MetricsSink metricsSink;
+    private final IntToDoubleFunction ratingCurve;
+
+    /**
+     * Creates a RandomGenerator that draws from the calling thread's ThreadLocalRandom.
+     */
+    public RandomGenerator() {
+        this(RandomSource.threadLocal());
+    }
+
+    /**
+     * Creates a RandomGenerator that draws from the given randomSource.  The randomSource is split
+     * once per randomize call, and the split source is used for every pick within that call.
+     *
+     * @param randomSource source of randomness, such as RandomSource.threadLocal() or RandomSource.splittable()
+     */
+    public RandomGenerator(RandomSource randomSource) {
+        this(randomSource, null, KeyStrategy.toStringKey(), MetricsSink.noop(), RatingWeights.LEGACY);
+    }
+
+    private RandomGenerator(RandomSource randomSource, ForkJoinPool forkJoinPool, KeyStrategy<? super T> keyStrategy,
+                            MetricsSink metricsSink, IntToDoubleFunction ratingCurve) {
+        if (randomSource == null) {
+            throw new IllegalArgumentException("randomSource cannot be null");
+        }
+        if (keyStrategy == null) {
+            throw new IllegalArgumentException("keyStrategy cannot be null");
+        }
+        if (metricsSink == null) {
+            throw new IllegalArgumentException("metricsSink cannot be null");
+        }
+        if (ratingCurve == null) {
+            throw new IllegalArgumentException("ratingCurve cannot be null");
+        }
+        this.randomSource = randomSource;
+        this.forkJoinPool = forkJoinPool;
+        this.keyStrategy = keyStrategy;
+        this.metricsSink = metricsSink;
+        this.ratingCurve = ratingCurve;
+    }
+
+    /**
+     * <p>Returns a Builder for configuring a new RandomGenerator.</p>
+     * <p>For example, a reproducible RandomGenerator can be created as follows:</p>
+     * <pre>
+     * RandomGenerator&lt;String&gt; randomGenerator = RandomGenerator.&lt;String&gt;builder().seed(42L).build();
+     * </pre>
+     *
+     * @param <T> type of the List items to randomize
+     * @return new Builder object using the default settings
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<T>();
+    }
+
     /**
      * Randomizes the elements in a given tList and returns a new
      * List object of the same type.  All items in the original tList
@@ -46,7 +125,7 @@ public class RandomGenerator<T> {
      */
     public List<T> randomize(List<T> tList) {
         logger.debug("calling preProcessing(tList, ZERO, false)");
-        return preProcessing(tList, ZERO, false);
+        return preProcessing(tList, ZERO, false, null, keyStrategy::keyOf, null, null);
     }
 
     /**
@@ -57,15 +136,16 @@ public class RandomGenerator<T> {
      * <p>If the useRating Boolean is set to true and the rating field
      * for each List item contains a valid Integer (values of 1 through
      * 5 are recommended), the randomization will be weighted to favor
-     * those with a higher rating field value.</p>
+     * those with a higher rating field value.  Items implementing {@link Rated}
+     * are read through getRating() instead of the rating field.</p>
      *
      * @param tList     List object to randomize
      * @param useRating Boolean to indicate if rating field will be used
      * @return new List object whose order has been randomized
      */
     public List<T> randomize(List<T> tList, Boolean useRating) {
-        logger.debug("calling preProcessing(tlist, ZERO, " + useRating + ")");
-        return preProcessing(tList, ZERO, useRating);
+        logger.debug("calling preProcessing(tList, ZERO, {})", useRating);
+        return preProcessing(tList, ZERO, useRating, null, keyStrategy::keyOf, null, null);
     }
 
     /**
@@ -81,8 +161,8 @@ public class RandomGenerator<T> {
      * @return new List object whose order has been randomized and limited to the size of the maxResults object
      */
     public List<T> randomize(List<T> tList, Integer maxResults) {
-        logger.debug("calling preProcessing(tList, " + maxResults + ", false)");
-        return preProcessing(tList, maxResults != null ? maxResults : ZERO, false);
+        logger.debug("calling preProcessing(tList, {}, false)", maxResults);
+        return preProcessing(tList, maxResults != null ? maxResults : ZERO, false, null, keyStrategy::keyOf, null, null);
     }
 
     /**
@@ -96,7 +176,8 @@ public class RandomGenerator<T> {
      * <p>If the useRating Boolean is set to true and the rating field
      * for each List item contains a valid Integer (values of 1 through
      * 5 are recommended), the randomization will be weighted to favor
-     * those with a higher rating field value.</p>
+     * those with a higher rating field value.  Items implementing {@link Rated}
+     * are read through getRating() instead of the rating field.</p>
      *
      * @param tList      List object to randomize
      * @param maxResults the size of the return List (specify 0 to return all results)
@@ -104,8 +185,587 @@ public class RandomGenerator<T> {
      * @return new List object whose order has been randomized and limited to the size of the maxResults object
      */
     public List<T> randomize(List<T> tList, Integer maxResults, Boolean useRating) {
-        logger.debug("calling preProcessing(tList, " + maxResults + ", " + useRating + ")");
-        return preProcessing(tList, maxResults != null ? maxResults : ZERO, useRating);
+        logger.debug("calling preProcessing(tList, {}, {})", maxResults, useRating);
+        return preProcessing(tList, maxResults != null ? maxResults : ZERO, useRating, null, keyStrategy::keyOf, null, null);
+    }
+
+    /**
+     * <p>Randomizes the elements in a given tList, applies weighting based upon
+     * the rating returned by the ratingFunction, and returns a new List object
+     * of the same type.  All items in the original tList will be returned.</p>
+     * <p>Ratings are mapped to weights by the rating curve the same way as the "rating" field
+     * used by {@link #randomize(List, Boolean)}, without any reflection.</p>
+     *
+     * @param tList          List object to randomize
+     * @param ratingFunction function returning the rating of each List item
+     * @return new List object whose order has been randomized
+     */
+    public List<T> randomize(List<T> tList, ToIntFunction<? super T> ratingFunction) {
+        logger.debug("calling preProcessing(tList, ZERO, ratingFunction)");
+        return preProcessing(tList, ZERO, true, weightsOf(ratingFunction), keyStrategy::keyOf, null, null);
+    }
+
+    /**
+     * <p>Randomizes the elements in a given tList, applies weighting based upon
+     * the rating returned by the ratingFunction, and returns a new List object
+     * of the same type - limited to the number provided in the maxResults object.
+     * Passing a maxResults value of zero will return a List object of the same
+     * size as the original tList object.</p>
+     * <p>Ratings are mapped to weights by the rating curve the same way as the "rating" field
+     * used by {@link #randomize(List, Integer, Boolean)}, without any reflection.</p>
+     *
+     * @param tList          List object to randomize
+     * @param maxResults     the size of the return List (specify 0 to return all results)
+     * @param ratingFunction function returning the rating of each List item
+     * @return new List object whose order has been randomized and limited to the size of the maxResults object
+     */
+    public List<T> randomize(List<T> tList, Integer maxResults, ToIntFunction<? super T> ratingFunction) {
+        logger.debug("calling preProcessing(tList, {}, ratingFunction)", maxResults);
+        return preProcessing(tList, maxResults != null ? maxResults : ZERO, true, weightsOf(ratingFunction), keyStrategy::keyOf, null,
+                null);
+    }
+
+    /**
+     * <p>Randomizes the elements in a given tList, where the chance of an item being drawn next is
+     * the weight returned by the weightFunction divided by the sum of the weights of the items not
+     * yet drawn, and returns a new List object of the same type - limited to the number provided in
+     * the maxResults object.  Passing a maxResults value of zero will return a List object of the
+     * same size as the original tList object.</p>
+     * <p>Weights can be any finite, non-negative double, such as a popularity score in the millions,
+     * and are not mapped by the rating curve.  Items with a weight of zero are never returned.</p>
+     *
+     * @param tList          List object to randomize
+     * @param maxResults     the size of the return List (specify 0 to return all results)
+     * @param weightFunction function returning the weight of each List item
+     * @return new List object whose order has been randomized and limited to the size of the maxResults object
+     * @throws IllegalArgumentException if the weightFunction returns a negative, infinite or NaN weight
+     */
+    public List<T> randomizeWeighted(List<T> tList, Integer maxResults, ToDoubleFunction<? super T> weightFunction) {
+        if (weightFunction == null) {
+            throw new IllegalArgumentException("weightFunction cannot be null");
+        }
+        logger.debug("calling preProcessing(tList, {}, weightFunction)", maxResults);
+        return preProcessing(tList, maxResults != null ? maxResults : ZERO, true, weightFunction, keyStrategy::keyOf, null, null);
+    }
+
+    /**
+     * <p>Returns an Iterator over the distinct items of a given tList in random order.  Items are
+     * drawn one at a time as the Iterator is advanced, so a caller that stops after a few items
+     * does no work for the items it never reads.</p>
+     * <p>The tList must not be modified while the Iterator is in use.</p>
+     *
+     * @param tList List object to randomize
+     * @return new Iterator returning the items of tList in random order
+     */
+    public Iterator<T> randomIterator(List<T> tList) {
+        return randomIterator(tList, false);
+    }
+
+    /**
+     * <p>Returns an Iterator over the distinct items of a given tList in random order.  Items are
+     * drawn one at a time as the Iterator is advanced, so a caller that stops after a few items
+     * does no work for the items it never reads.</p>
+     * <p>If the useRating Boolean is set to true, items are weighted by their "rating" field the
+     * same way as {@link #randomize(List, Boolean)}, and items without a rating field are not
+     * returned.  The weights of all items are resolved when the Iterator is created.</p>
+     * <p>The tList must not be modified while the Iterator is in use.</p>
+     *
+     * @param tList     List object to randomize
+     * @param useRating Boolean to indicate if rating field will be used
+     * @return new Iterator returning the items of tList in random order
+     */
+    public Iterator<T> randomIterator(List<T> tList, Boolean useRating) {
+        logger.debug("creating randomIterator(tList, {})", useRating);
+        if (tList == null || tList.isEmpty()) {
+            return Collections.emptyIterator();
+        }
+
+        if (useRating) {
+            List<T> ratedList = new ArrayList<T>(tList.size());
+            double[] weights = resolveRatingWeights(tList, ratedList);
+            return LazyShuffler.weighted(ratedList, weights, keyStrategy::keyOf, randomSource.split());
+        }
+        return LazyShuffler.uniform(tList, keyStrategy::keyOf, randomSource.split());
+    }
+
+    /**
+     * Returns a sequential Stream of the distinct items of a given tList in random order, drawn
+     * lazily as the Stream is consumed.  See {@link #randomIterator(List)}.
+     *
+     * @param tList List object to randomize
+     * @return new Stream returning the items of tList in random order
+     */
+    public Stream<T> randomStream(List<T> tList) {
+        return randomStream(tList, false);
+    }
+
+    /**
+     * Returns a sequential Stream of the distinct items of a given tList in random order, drawn
+     * lazily as the Stream is consumed.  See {@link #randomIterator(List, Boolean)}.
+     *
+     * @param tList     List object to randomize
+     * @param useRating Boolean to indicate if rating field will be used
+     * @return new Stream returning the items of tList in random order
+     */
+    public Stream<T> randomStream(List<T> tList, Boolean useRating) {
+        Iterator<T> iterator = randomIterator(tList, useRating);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * <p>Randomizes many independent Lists in one call, returning one new List object per
+     * BatchRequest in the same order as the requests.  Each List is randomized exactly as
+     * {@link #randomize(List, Integer, Boolean)} would randomize it, using the maxResults and
+     * useRating settings of its own BatchRequest.</p>
+     * <p>A batch avoids the per-call overhead of randomizing many small Lists one at a time: the
+     * buffers used to draw the items are allocated once and reused for every List in the batch.</p>
+     *
+     * @param requests the Lists to randomize, along with their settings
+     * @return new List object containing the randomized List of each request, in request order
+     */
+    public List<List<T>> randomizeAll(Collection<BatchRequest<T>> requests) {
+        return randomizeAll(requests, null);
+    }
+
+    /**
+     * <p>Randomizes many independent Lists in one call, returning one new List object per
+     * BatchRequest in the same order as the requests.  See {@link #randomizeAll(Collection)}.</p>
+     * <p>If an executorService is provided, the requests are divided into contiguous chunks that
+     * are randomized on the executorService, each chunk with its own buffers.  The source of
+     * randomness is split for every request, in request order, before any chunk is submitted, so a
+     * seeded RandomGenerator returns the same results with or without an executorService.</p>
+     *
+     * @param requests        the Lists to randomize, along with their settings
+     * @param executorService executor to randomize the chunks on, or null to randomize on the calling thread
+     * @return new List object containing the randomized List of each request, in request order
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<T>> randomizeAll(Collection<BatchRequest<T>> requests, ExecutorService executorService) {
+        if (requests == null) {
+            throw new IllegalArgumentException("requests cannot be null");
+        }
+        List<BatchRequest<T>> batch = new ArrayList<BatchRequest<T>>(requests);
+        logger.debug("calling randomizeAll({} requests)", batch.size());
+
+        RandomSource[] randoms = new RandomSource[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            if (batch.get(i) == null) {
+                throw new IllegalArgumentException("requests cannot contain null");
+            }
+            randoms[i] = randomSource.split();
+        }
+
+        // every chunk sets only its own indexes, which does not change the structure of the list
+        List<List<T>> results = new ArrayList<List<T>>(Collections.<List<T>>nCopies(batch.size(), null));
+        int chunkSize = Math.max((batch.size() + BATCH_CHUNKS - 1) / BATCH_CHUNKS, 1);
+        if (executorService == null || chunkSize >= batch.size()) {
+            randomizeChunk(batch, randoms, results, 0, batch.size());
+        } else {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int from = 0; from < batch.size(); from += chunkSize) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(from + chunkSize, batch.size());
+                futures.add(executorService.submit(() -> randomizeChunk(batch, randoms, results, chunkFrom, chunkTo)));
+            }
+            awaitChunks(futures);
+        }
+
+        return results;
+    }
+
+    private void randomizeChunk(List<BatchRequest<T>> batch, RandomSource[] randoms, List<List<T>> results, int from,
+                                int to) {
+        ShuffleEngine.Scratch scratch = new ShuffleEngine.Scratch();
+        Function<? super T, ?> keyFunction = keyStrategy::keyOf;
+
+        for (int i = from; i < to; i++) {
+            BatchRequest<T> request = batch.get(i);
+            results.set(i, preProcessing(request.getList(), request.getMaxResults(), request.getUseRating(), null, keyFunction,
+                    randoms[i], scratch));
+        }
+    }
+
+    private static void awaitChunks(List<Future<?>> futures) {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the batch to complete", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * <p>Prepares a List for repeated draws.  The rating weight and key of every item are resolved
+     * once, after which each draw from the returned PreparedPopulation costs time proportional to
+     * the number of items drawn rather than to the size of the List.</p>
+     * <p>Items are weighted by their "rating" field the same way as
+     * {@link #randomize(List, Integer, Boolean)} when drawn with
+     * {@link PreparedPopulation#sampleWeighted(Integer)}.  Items without a rating field are only
+     * drawn by the unweighted draw methods.</p>
+     *
+     * @param tList List object to prepare
+     * @return new PreparedPopulation object drawing from the items of tList
+     */
+    public PreparedPopulation<T> prepare(List<T> tList) {
+        if (tList == null) {
+            throw new IllegalArgumentException("tList cannot be null");
+        }
+        double[] weights = new double[tList.size()];
+        int i = 0;
+        for (T tItem : tList) {
+            weights[i++] = ratingWeightOf(tItem);
+        }
+        return new PreparedPopulation<T>(tList, weights, keyStrategy::keyOf, randomSource, metricsSink);
+    }
+
+    /**
+     * Prepares a List for repeated draws, using the rating returned by the ratingFunction to weight
+     * the items drawn with {@link PreparedPopulation#sampleWeighted(Integer)}.  See {@link #prepare(List)}.
+     *
+     * @param tList          List object to prepare
+     * @param ratingFunction function returning the rating of an item
+     * @return new PreparedPopulation object drawing from the items of tList
+     */
+    public PreparedPopulation<T> prepare(List<T> tList, ToIntFunction<? super T> ratingFunction) {
+        if (tList == null) {
+            throw new IllegalArgumentException("tList cannot be null");
+        }
+        return new PreparedPopulation<T>(tList, resolveWeights(tList, weightsOf(ratingFunction)), keyStrategy::keyOf, randomSource,
+                metricsSink);
+    }
+
+    /**
+     * <p>Returns a random sample of up to maxResults items from an Iterator, reading the Iterator
+     * exactly once.  Memory use is proportional to maxResults regardless of how many items the
+     * Iterator returns, which allows sampling inputs that do not fit in memory.</p>
+     * <p>Unlike the List methods, items with the same toString() value are not merged, since a
+     * duplicate can appear after an item has already left the sample.</p>
+     *
+     * @param iterator   Iterator over the items to sample
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @return new List object containing the sampled items in random order
+     */
+    public List<T> sample(Iterator<? extends T> iterator, Integer maxResults) {
+        return sample(iterator, maxResults, false);
+    }
+
+    /**
+     * <p>Returns a random sample of up to maxResults items from an Iterator, reading the Iterator
+     * exactly once.  Memory use is proportional to maxResults regardless of how many items the
+     * Iterator returns, which allows sampling inputs that do not fit in memory.</p>
+     * <p>If the useRating Boolean is set to true, items are weighted by their "rating" field the
+     * same way as {@link #randomize(List, Integer, Boolean)}, and the sample is returned in
+     * weighted random order.  Items without a rating field are not sampled.</p>
+     * <p>Unlike the List methods, items with the same toString() value are not merged, since a
+     * duplicate can appear after an item has already left the sample.</p>
+     *
+     * @param iterator   Iterator over the items to sample
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @param useRating  Boolean to indicate if rating field will be used
+     * @return new List object containing the sampled items in random order
+     */
+    public List<T> sample(Iterator<? extends T> iterator, Integer maxResults, Boolean useRating) {
+        ReservoirSampler.Sampler<T> sampler = createSampler(maxResults, useRating);
+        iterator.forEachRemaining(sampler);
+        return sampler.result();
+    }
+
+    /**
+     * Returns a random sample of up to maxResults items from a Stream, consuming the Stream
+     * sequentially.  See {@link #sample(Iterator, Integer)}.
+     *
+     * @param stream     Stream of the items to sample
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @return new List object containing the sampled items in random order
+     */
+    public List<T> sample(Stream<? extends T> stream, Integer maxResults) {
+        return sample(stream.spliterator(), maxResults, false);
+    }
+
+    /**
+     * Returns a random sample of up to maxResults items from a Stream, consuming the Stream
+     * sequentially.  See {@link #sample(Iterator, Integer, Boolean)}.
+     *
+     * @param stream     Stream of the items to sample
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @param useRating  Boolean to indicate if rating field will be used
+     * @return new List object containing the sampled items in random order
+     */
+    public List<T> sample(Stream<? extends T> stream, Integer maxResults, Boolean useRating) {
+        return sample(stream.spliterator(), maxResults, useRating);
+    }
+
+    /**
+     * Returns a random sample of up to maxResults items from a Spliterator, traversing it
+     * sequentially.  See {@link #sample(Iterator, Integer)}.
+     *
+     * @param spliterator Spliterator over the items to sample
+     * @param maxResults  the maximum size of the return List (must be greater than zero)
+     * @return new List object containing the sampled items in random order
+     */
+    public List<T> sample(Spliterator<? extends T> spliterator, Integer maxResults) {
+        return sample(spliterator, maxResults, false);
+    }
+
+    /**
+     * Returns a random sample of up to maxResults items from a Spliterator, traversing it
+     * sequentially.  See {@link #sample(Iterator, Integer, Boolean)}.
+     *
+     * @param spliterator Spliterator over the items to sample
+     * @param maxResults  the maximum size of the return List (must be greater than zero)
+     * @param useRating   Boolean to indicate if rating field will be used
+     * @return new List object containing the sampled items in random order
+     */
+    public List<T> sample(Spliterator<? extends T> spliterator, Integer maxResults, Boolean useRating) {
+        ReservoirSampler.Sampler<T> sampler = createSampler(maxResults, useRating);
+        spliterator.forEachRemaining(sampler);
+        return sampler.result();
+    }
+
+    /**
+     * <p>Randomizes the order of the given int array in place, without allocating any objects.</p>
+     * <p>Unlike the List methods, duplicate values are not merged.</p>
+     *
+     * @param values int array to randomize
+     */
+    public void shuffle(int[] values) {
+        PrimitiveShuffler.shuffle(values, ZERO, randomSource.split());
+    }
+
+    /**
+     * <p>Randomizes the first maxResults elements of the given int array in place, without
+     * allocating any objects.  Afterwards, the first maxResults elements are a random sample
+     * of the whole array in random order.  Only maxResults swaps are performed, so the cost
+     * does not depend on the size of the array.</p>
+     * <p>Unlike the List methods, duplicate values are not merged.</p>
+     *
+     * @param values     int array to randomize
+     * @param maxResults the number of leading elements to randomize (specify 0 to randomize the whole array)
+     */
+    public void shuffle(int[] values, int maxResults) {
+        PrimitiveShuffler.shuffle(values, maxResults, randomSource.split());
+    }
+
+    /**
+     * Returns a new int array containing the values of the given array in random order.  The given
+     * array is left unchanged, and duplicate values are not merged.
+     *
+     * @param values int array to randomize
+     * @return new int array whose order has been randomized
+     */
+    public int[] randomize(int[] values) {
+        return randomize(values, ZERO);
+    }
+
+    /**
+     * Returns a new int array containing a random sample of maxResults values from the given array,
+     * in random order.  Passing a maxResults value of zero, or one greater than the array length,
+     * returns all values.  The given array is left unchanged, and duplicate values are not merged.
+     *
+     * @param values     int array to randomize
+     * @param maxResults the size of the return array (specify 0 to return all values)
+     * @return new int array whose order has been randomized and limited to the size of maxResults
+     */
+    public int[] randomize(int[] values, int maxResults) {
+        int[] randomValues = values.clone();
+        PrimitiveShuffler.shuffle(randomValues, maxResults, randomSource.split());
+        return maxResults > ZERO && maxResults < values.length ? Arrays.copyOf(randomValues, maxResults) : randomValues;
+    }
+
+    /**
+     * Returns a IntStream of the given stream's values in random order.  The given stream is
+     * consumed before the returned stream is created, and duplicate values are not merged.
+     *
+     * @param values IntStream to randomize
+     * @return new IntStream whose order has been randomized
+     */
+    public IntStream randomize(IntStream values) {
+        return randomize(values, ZERO);
+    }
+
+    /**
+     * Returns a IntStream containing a random sample of maxResults values from the given stream,
+     * in random order.  The given stream is consumed before the returned stream is created, and
+     * duplicate values are not merged.
+     *
+     * @param values     IntStream to randomize
+     * @param maxResults the size of the return stream (specify 0 to return all values)
+     * @return new IntStream whose order has been randomized and limited to the size of maxResults
+     */
+    public IntStream randomize(IntStream values, int maxResults) {
+        int[] randomValues = values.toArray();
+        PrimitiveShuffler.shuffle(randomValues, maxResults, randomSource.split());
+        IntStream randomStream = Arrays.stream(randomValues);
+        return maxResults > ZERO && maxResults < randomValues.length ? randomStream.limit(maxResults) : randomStream;
+    }
+
+    /**
+     * <p>Randomizes the order of the given long array in place, without allocating any objects.</p>
+     * <p>Unlike the List methods, duplicate values are not merged.</p>
+     *
+     * @param values long array to randomize
+     */
+    public void shuffle(long[] values) {
+        PrimitiveShuffler.shuffle(values, ZERO, randomSource.split());
+    }
+
+    /**
+     * <p>Randomizes the first maxResults elements of the given long array in place, without
+     * allocating any objects.  Afterwards, the first maxResults elements are a random sample
+     * of the whole array in random order.  Only maxResults swaps are performed, so the cost
+     * does not depend on the size of the array.</p>
+     * <p>Unlike the List methods, duplicate values are not merged.</p>
+     *
+     * @param values     long array to randomize
+     * @param maxResults the number of leading elements to randomize (specify 0 to randomize the whole array)
+     */
+    public void shuffle(long[] values, int maxResults) {
+        PrimitiveShuffler.shuffle(values, maxResults, randomSource.split());
+    }
+
+    /**
+     * Returns a new long array containing the values of the given array in random order.  The given
+     * array is left unchanged, and duplicate values are not merged.
+     *
+     * @param values long array to randomize
+     * @return new long array whose order has been randomized
+     */
+    public long[] randomize(long[] values) {
+        return randomize(values, ZERO);
+    }
+
+    /**
+     * Returns a new long array containing a random sample of maxResults values from the given array,
+     * in random order.  Passing a maxResults value of zero, or one greater than the array length,
+     * returns all values.  The given array is left unchanged, and duplicate values are not merged.
+     *
+     * @param values     long array to randomize
+     * @param maxResults the size of the return array (specify 0 to return all values)
+     * @return new long array whose order has been randomized and limited to the size of maxResults
+     */
+    public long[] randomize(long[] values, int maxResults) {
+        long[] randomValues = values.clone();
+        PrimitiveShuffler.shuffle(randomValues, maxResults, randomSource.split());
+        return maxResults > ZERO && maxResults < values.length ? Arrays.copyOf(randomValues, maxResults) : randomValues;
+    }
+
+    /**
+     * Returns a LongStream of the given stream's values in random order.  The given stream is
+     * consumed before the returned stream is created, and duplicate values are not merged.
+     *
+     * @param values LongStream to randomize
+     * @return new LongStream whose order has been randomized
+     */
+    public LongStream randomize(LongStream values) {
+        return randomize(values, ZERO);
+    }
+
+    /**
+     * Returns a LongStream containing a random sample of maxResults values from the given stream,
+     * in random order.  The given stream is consumed before the returned stream is created, and
+     * duplicate values are not merged.
+     *
+     * @param values     LongStream to randomize
+     * @param maxResults the size of the return stream (specify 0 to return all values)
+     * @return new LongStream whose order has been randomized and limited to the size of maxResults
+     */
+    public LongStream randomize(LongStream values, int maxResults) {
+        long[] randomValues = values.toArray();
+        PrimitiveShuffler.shuffle(randomValues, maxResults, randomSource.split());
+        LongStream randomStream = Arrays.stream(randomValues);
+        return maxResults > ZERO && maxResults < randomValues.length ? randomStream.limit(maxResults) : randomStream;
+    }
+
+    /**
+     * <p>Randomizes the order of the given double array in place, without allocating any objects.</p>
+     * <p>Unlike the List methods, duplicate values are not merged.</p>
+     *
+     * @param values double array to randomize
+     */
+    public void shuffle(double[] values) {
+        PrimitiveShuffler.shuffle(values, ZERO, randomSource.split());
+    }
+
+    /**
+     * <p>Randomizes the first maxResults elements of the given double array in place, without
+     * allocating any objects.  Afterwards, the first maxResults elements are a random sample
+     * of the whole array in random order.  Only maxResults swaps are performed, so the cost
+     * does not depend on the size of the array.</p>
+     * <p>Unlike the List methods, duplicate values are not merged.</p>
+     *
+     * @param values     double array to randomize
+     * @param maxResults the number of leading elements to randomize (specify 0 to randomize the whole array)
+     */
+    public void shuffle(double[] values, int maxResults) {
+        PrimitiveShuffler.shuffle(values, maxResults, randomSource.split());
+    }
+
+    /**
+     * Returns a new double array containing the values of the given array in random order.  The given
+     * array is left unchanged, and duplicate values are not merged.
+     *
+     * @param values double array to randomize
+     * @return new double array whose order has been randomized
+     */
+    public double[] randomize(double[] values) {
+        return randomize(values, ZERO);
+    }
+
+    /**
+     * Returns a new double array containing a random sample of maxResults values from the given array,
+     * in random order.  Passing a maxResults value of zero, or one greater than the array length,
+     * returns all values.  The given array is left unchanged, and duplicate values are not merged.
+     *
+     * @param values     double array to randomize
+     * @param maxResults the size of the return array (specify 0 to return all values)
+     * @return new double array whose order has been randomized and limited to the size of maxResults
+     */
+    public double[] randomize(double[] values, int maxResults) {
+        double[] randomValues = values.clone();
+        PrimitiveShuffler.shuffle(randomValues, maxResults, randomSource.split());
+        return maxResults > ZERO && maxResults < values.length ? Arrays.copyOf(randomValues, maxResults) : randomValues;
+    }
+
+    /**
+     * Returns a DoubleStream of the given stream's values in random order.  The given stream is
+     * consumed before the returned stream is created, and duplicate values are not merged.
+     *
+     * @param values DoubleStream to randomize
+     * @return new DoubleStream whose order has been randomized
+     */
+    public DoubleStream randomize(DoubleStream values) {
+        return randomize(values, ZERO);
+    }
+
+    /**
+     * Returns a DoubleStream containing a random sample of maxResults values from the given stream,
+     * in random order.  The given stream is consumed before the returned stream is created, and
+     * duplicate values are not merged.
+     *
+     * @param values     DoubleStream to randomize
+     * @param maxResults the size of the return stream (specify 0 to return all values)
+     * @return new DoubleStream whose order has been randomized and limited to the size of maxResults
+     */
+    public DoubleStream randomize(DoubleStream values, int maxResults) {
+        double[] randomValues = values.toArray();
+        PrimitiveShuffler.shuffle(randomValues, maxResults, randomSource.split());
+        DoubleStream randomStream = Arrays.stream(randomValues);
+        return maxResults > ZERO && maxResults < randomValues.length ? randomStream.limit(maxResults) : randomStream;
     }
 
     /**
@@ -118,10 +778,7 @@ public class RandomGenerator<T> {
      * @return new String object whose order has been randomized
      */
     public String randomize(String thisString, String thisSeparator) {
-        logger.debug("calling convertStringToList(thisString, " + thisSeparator + ")");
-        List<T> thisList = convertStringToList(thisString, thisSeparator);
-        logger.debug("calling convertListToString(preProcessing(thisList, ZERO, false), " + thisSeparator + ")");
-        return convertListToString(preProcessing(thisList, ZERO, false), thisSeparator);
+        return randomize(thisString, thisSeparator, ZERO);
     }
 
     /**
@@ -140,191 +797,317 @@ public class RandomGenerator<T> {
      * @return new String object whose order has been randomized and limited to the size of the maxResults object
      */
     public String randomize(String thisString, String thisSeparator, Integer maxResults) {
-        logger.debug("calling convertStringToList(thisString, " + thisSeparator + ")");
-        List<T> thisList = convertStringToList(thisString, thisSeparator);
-        logger.debug("calling convertListToString(preProcessing(thisList, " + maxResults != null ? maxResults : ZERO + ", false), " + thisSeparator + ")");
-        return convertListToString(preProcessing(thisList, maxResults != null ? maxResults : ZERO, false), thisSeparator);
-    }
-
-    private String convertListToString(List<T> thisList, String thisCat) {
-        StringBuffer sb = new StringBuffer();
-
-        for (int i = 0; i < thisList.size(); i++) {
-            sb.append(thisList.get(i).toString());
-            sb.append(thisCat);
+        if (thisString == null) {
+            return "";
         }
 
+        DelimitedTokens tokens = tokenize(thisString, thisSeparator);
+        int[] drawn = drawTokens(tokens, maxResults, randomSource);
+        StringBuilder sb = new StringBuilder(tokens.length(drawn));
+        try {
+            writeTokens(tokens, drawn, thisSeparator, sb);
+        } catch (IOException e) {
+            // StringBuilder does not throw IOException
+            throw new IllegalStateException(e);
+        }
         return sb.toString();
     }
 
-    private List<T> convertStringToList(String thisString, String thisCat) {
-        List<T> thisList = new ArrayList<T>();
-        int lastCatPointer = 0;
+    /**
+     * <p>Writes the elements of thisString, which are denoted by thisSeparator, to the given
+     * appendable in random order, each followed by thisSeparator.  The output is limited to the
+     * number provided in the maxResults object (specify 0 to write all elements).</p>
+     * <p>Only the offsets of the elements are held in memory; the elements themselves are copied
+     * from thisString directly to the appendable.</p>
+     *
+     * @param thisString    CharSequence object to randomize
+     * @param thisSeparator String value of separator for thisString object
+     * @param maxResults    the number of elements to write (specify 0 to write all elements)
+     * @param appendable    Appendable object, such as a StringBuilder or Writer, to write the elements to
+     * @throws IOException if the appendable cannot be written to
+     */
+    public void randomize(CharSequence thisString, String thisSeparator, Integer maxResults, Appendable appendable)
+            throws IOException {
+        randomize(thisString, thisSeparator, maxResults, appendable, randomSource);
+    }
+
+    /**
+     * Same as {@link #randomize(CharSequence, String, Integer, Appendable)}, drawing from the given
+     * source of randomness instead of the one of this RandomGenerator, so that one RandomGenerator
+     * can randomize many strings that each have their own source (as the lines of a -batch run do).
+     */
+    void randomize(CharSequence thisString, String thisSeparator, Integer maxResults, Appendable appendable,
+                   RandomSource random) throws IOException {
+        if (thisString != null) {
+            DelimitedTokens tokens = tokenize(thisString, thisSeparator);
+            writeTokens(tokens, drawTokens(tokens, maxResults, random), thisSeparator, appendable);
+        }
+    }
 
-        while (lastCatPointer < thisString.length()) {
-            int thisCatPointer = thisString.indexOf(thisCat, lastCatPointer);
+    private DelimitedTokens tokenize(CharSequence thisString, String thisSeparator) {
+        if (thisSeparator == null || thisSeparator.isEmpty()) {
+            throw new IllegalArgumentException("thisSeparator cannot be null or empty");
+        }
+        return DelimitedTokens.tokenize(thisString, thisSeparator);
+    }
 
-            String thisCatValue = thisString.substring(lastCatPointer, thisCatPointer);
+    private int[] drawTokens(DelimitedTokens tokens, Integer maxResults, RandomSource random) {
+        long startNanos = metricsSink.isEnabled() ? System.nanoTime() : 0L;
+        int[] drawn = tokens.draw(maxResults != null && maxResults.intValue() > ZERO ? maxResults : ZERO, random.split());
 
-            if (thisCatValue != null && thisCatValue.length() > 0) {
-                thisList.add((T) thisCatValue);
-            }
-            lastCatPointer = thisCatPointer + thisCat.length();
+        if (metricsSink.isEnabled()) {
+            metricsSink.record(System.nanoTime() - startNanos, tokens.size(), tokens.size(), tokens.draws() - drawn.length,
+                    drawn.length);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("drawTokens(tokens, {}) returned {} of {} tokens", maxResults, drawn.length, tokens.size());
         }
+        return drawn;
+    }
 
-        return thisList;
+    private void writeTokens(DelimitedTokens tokens, int[] drawn, String thisSeparator, Appendable appendable) throws IOException {
+        for (int token : drawn) {
+            tokens.appendTo(appendable, token);
+            appendable.append(thisSeparator);
+        }
     }
 
-    private List<T> preProcessing(List<T> tList, Integer maxResults, Boolean useRating) {
-        logger.debug("begin preProcessing(tList, " + maxResults + ", " + useRating + ")");
-        List<RandomListItem> returnList = new ArrayList<RandomListItem>();
+    private List<T> preProcessing(List<T> tList, Integer maxResults, Boolean useRating, ToDoubleFunction<? super T> weightFunction,
+                                  Function<? super T, ?> keyFunction, RandomSource random, ShuffleEngine.Scratch scratch) {
+        // nothing is measured, and the clock is not read, unless a MetricsSink is enabled
+        CallMetrics<T> callMetrics = metricsSink.isEnabled() ? new CallMetrics<T>(keyFunction, System.nanoTime()) : null;
+        List<T> returnList = new ArrayList<T>();
 
         if (tList != null && tList.size() > 0) {
-            logger.debug("tList.size() = " + tList.size());
             if (tList.size() == 1) {
-                return tList;
+                returnList = tList;
             } else {
-                if (maxResults.intValue() > ZERO) {
-                    if (maxResults.intValue() >= tList.size()) {
-                        logger.debug("maxResults (" + maxResults + ") is greater than tList.size() (" + tList.size() + ")");
-                        handleRandomization(expandListForRatings(tList, useRating), returnList, ZERO);
-                    } else {
-                        handleRandomization(expandListForRatings(tList, useRating), returnList, maxResults);
-                    }
-                } else {
-                    handleRandomization(expandListForRatings(tList, useRating), returnList, ZERO);
-                }
+                returnList = handleRandomization(tList, maxResults.intValue() > ZERO ? maxResults : ZERO, useRating, weightFunction,
+                        callMetrics != null ? callMetrics : keyFunction, callMetrics, random != null ? random : randomSource.split(),
+                        scratch);
             }
         }
 
-        logger.debug("returnList.size() = " + returnList.size());
-        logger.debug("end preProcessing(tList, " + maxResults + ")");
-        return convertToGenericList(returnList);
+        if (callMetrics != null) {
+            callMetrics.record(metricsSink, tList != null ? tList.size() : ZERO, returnList.size());
+        }
+
+        // a single summary line per call, guarded so that nothing is boxed or formatted unless debug is enabled
+        if (logger.isDebugEnabled()) {
+            logger.debug("preProcessing(tList, {}, {}) returned {} of {} items", maxResults, useRating, returnList.size(),
+                    tList != null ? tList.size() : ZERO);
+        }
+        return returnList;
     }
 
-    private void handleRandomization(List<RandomListItem> randomListItems, List<RandomListItem> returnList, Integer maxResults) {
-        logger.debug("begin handleRandomization(tList, returnList, " + maxResults + ")");
-        while (randomListItems.size() > 0 && (maxResults.intValue() == ZERO || maxResults.intValue() > returnList.size())) {
-            int listSize = randomListItems.size();
-            logger.debug("listSize = " + listSize);
+    private List<T> handleRandomization(List<T> tList, Integer maxResults, Boolean useRating,
+                                        ToDoubleFunction<? super T> weightFunction, Function<? super T, ?> keyFunction,
+                                        CallMetrics<T> callMetrics, RandomSource random, ShuffleEngine.Scratch scratch) {
+        List<T> returnList;
 
-            int winner = 0;
-            if (listSize != 1) {
-                Random random = new Random();
-                winner = random.nextInt(listSize);
+        if (weightFunction != null) {
+            double[] weights = resolveWeights(tList, weightFunction);
+            if (callMetrics != null) {
+                callMetrics.expandedSize = sum(weights);
             }
-            logger.debug("winner = " + winner);
+            returnList = ShuffleEngine.drawWeighted(tList, weights, maxResults, keyFunction, random);
+        } else if (useRating) {
+            List<T> ratedList = new ArrayList<T>(tList.size());
+            double[] weights = resolveRatingWeights(tList, ratedList);
+            if (callMetrics != null) {
+                callMetrics.expandedSize = sum(weights);
+            }
+            returnList = ShuffleEngine.drawWeighted(ratedList, weights, maxResults, keyFunction, random);
+        } else if (forkJoinPool != null) {
+            returnList = ParallelShuffler.draw(tList, maxResults, keyFunction, random, forkJoinPool);
+        } else {
+            returnList = ShuffleEngine.draw(tList, maxResults, keyFunction, random, scratch);
+        }
+
+        return returnList;
+    }
+
+    private static long sum(double[] weights) {
+        double sum = 0;
+        for (double weight : weights) {
+            sum += weight;
+        }
+        return Math.round(sum);
+    }
 
-            RandomListItem randomListItem = randomListItems.get(winner);
+    private ReservoirSampler.Sampler<T> createSampler(Integer maxResults, Boolean useRating) {
+        if (maxResults == null || maxResults.intValue() <= ZERO) {
+            throw new IllegalArgumentException("maxResults must be greater than zero when sampling");
+        }
+        logger.debug("creating sampler({}, {})", maxResults, useRating);
 
-            returnList.add(randomListItem);
-            removeSimilarItems(randomListItems, randomListItem.originalToString);
+        RandomSource random = randomSource.split();
+        if (useRating) {
+            return ReservoirSampler.weighted(maxResults, this::ratingWeightOf, random);
+        }
+        return ReservoirSampler.uniform(maxResults, random);
+    }
 
-            logger.debug("returnList.size() = " + returnList.size());
-            logger.debug("randomListItems.size() = " + randomListItems.size());
+    private double ratingWeightOf(T tItem) {
+        Function<Object, Integer> ratingAccessor = RatingAccessor.forClass(tItem.getClass());
+        return ratingAccessor != null ? RatingWeights.weightOf(ratingAccessor.apply(tItem), ratingCurve) : 0;
+    }
+
+    private ToDoubleFunction<T> weightsOf(ToIntFunction<? super T> ratingFunction) {
+        if (ratingFunction == null) {
+            throw new IllegalArgumentException("ratingFunction cannot be null");
         }
-        logger.debug("end handleRandomization(tList, returnList, " + maxResults + ")");
+        return tItem -> RatingWeights.checkWeight(ratingCurve.applyAsDouble(ratingFunction.applyAsInt(tItem)));
     }
 
-    private List<RandomListItem> expandListForRatings(List<T> tList, Boolean useRating) {
-        logger.debug("begin expandListForRatings(tList, " + useRating + ")");
+    private double[] resolveWeights(List<T> tList, ToDoubleFunction<? super T> weightFunction) {
+        double[] weights = new double[tList.size()];
 
-        List<RandomListItem> newList = new ArrayList<RandomListItem>();
+        int i = 0;
+        for (T tItem : tList) {
+            weights[i++] = RatingWeights.checkWeight(weightFunction.applyAsDouble(tItem));
+        }
 
-        if (tList != null && tList.size() > 0) {
+        return weights;
+    }
 
-            for (T tItem : tList) {
-                if (useRating) {
-                    for (Field field : tItem.getClass().getDeclaredFields()) {
-                        field.setAccessible(true);
-                        if (field.getName().equals(RATING)) {
-                            if (field.getType().equals(Integer.class)) {
-                                Integer rating = 1;
-                                try {
-                                    Object o = field.get(tItem);
-                                    rating = (Integer) o;
-                                    logger.debug("Rating = " + rating);
-                                } catch (Exception e) {
-                                    logger.debug("Exception occurred trying to get rating");
-                                }
-                                copyListItem(tItem, rating, newList);
-                            }
-                        }
-                    }
-                } else {
-                    copyListItem(tItem, 1, newList);
-                }
+    private double[] resolveRatingWeights(List<T> tList, List<T> ratedList) {
+        double[] weights = new double[tList.size()];
+
+        for (T tItem : tList) {
+            Function<Object, Integer> ratingAccessor = RatingAccessor.forClass(tItem.getClass());
+            if (ratingAccessor != null) {
+                weights[ratedList.size()] = RatingWeights.weightOf(ratingAccessor.apply(tItem), ratingCurve);
+                ratedList.add(tItem);
             }
         }
 
-        return newList;
+        return weights.length == ratedList.size() ? weights : Arrays.copyOf(weights, ratedList.size());
     }
 
-    private void copyListItem(T thisT, Integer rating, List<RandomListItem> newList) {
-        int ratingOffset;
+    /**
+     * Builder for RandomGenerator objects.
+     *
+     * @param <T> type of the List items to randomize
+     */
+    public static final class Builder<T> {
+        private RandomSource randomSource = RandomSource.threadLocal();
+        private ForkJoinPool forkJoinPool;
+        private KeyStrategy<? super T> keyStrategy = KeyStrategy.toStringKey();
+        private MetricsSink metricsSink = MetricsSink.noop();
+        private IntToDoubleFunction ratingCurve = RatingWeights.LEGACY;
 
-        switch (rating) {
-        case 1:
-            ratingOffset = 1;
-            break;
-        case 2:
-            ratingOffset = 2;
-            break;
-        case 3:
-            ratingOffset = 4;
-            break;
-        case 4:
-            ratingOffset = 8;
-            break;
-        case 5:
-            ratingOffset = 16;
-            break;
-        default:
-            ratingOffset = 1;
-            break;
+        private Builder() {
         }
 
-        for (int i = 0; i < ratingOffset; i++) {
-            RandomListItem randomListItem = new RandomListItem(thisT.toString(), thisT);
-            newList.add(randomListItem);
+        /**
+         * @param randomSource source of randomness to use (defaults to RandomSource.threadLocal())
+         * @return this Builder object
+         */
+        public Builder<T> randomSource(RandomSource randomSource) {
+            this.randomSource = randomSource;
+            return this;
         }
-    }
 
-    private List<T> convertToGenericList(List<RandomListItem> randomListItems) {
-        List<T> tList = new ArrayList<T>();
+        /**
+         * Uses a reproducible source of randomness created from the given seed.  Two RandomGenerator
+         * objects built with the same seed return the same results for the same sequence of calls.
+         *
+         * @param seed the initial seed
+         * @return this Builder object
+         */
+        public Builder<T> seed(long seed) {
+            this.randomSource = RandomSource.seeded(seed);
+            return this;
+        }
 
-        for (RandomListItem randomListItem : randomListItems) {
-            tList.add(randomListItem.thisT);
+        /**
+         * <p>Shuffles large lists in parallel using the given ForkJoinPool, for example
+         * ForkJoinPool.commonPool().  Small lists, small maxResults values and rated
+         * randomization still run on the calling thread.</p>
+         * <p>Results remain reproducible when combined with {@link #seed(long)}.</p>
+         *
+         * @param forkJoinPool pool to shuffle large lists in, or null to always shuffle sequentially (the default)
+         * @return this Builder object
+         */
+        public Builder<T> parallel(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+            return this;
         }
 
-        return tList;
-    }
+        /**
+         * Determines which List items are treated as duplicates, of which only the first drawn item is
+         * returned.  Defaults to KeyStrategy.toStringKey(), which matches items by their toString() value.
+         *
+         * @param keyStrategy KeyStrategy such as KeyStrategy.equalsAndHashCode(), or a key extractor lambda
+         * @return this Builder object
+         */
+        public Builder<T> keyStrategy(KeyStrategy<? super T> keyStrategy) {
+            this.keyStrategy = keyStrategy;
+            return this;
+        }
 
-    private void removeSimilarItems(List<RandomListItem> randomListItems, String originalToString) {
-        logger.debug("calling removeSimilarItems(randomListItems, " + originalToString + ")");
-        Iterator<RandomListItem> itemIterator = randomListItems.iterator();
+        /**
+         * Records the latency, input size, expanded size, duplicates removed and items returned of every
+         * List randomize call in the given sink.
+         *
+         * @param metricsSink MetricsSink such as a JmxMetricsSink (defaults to MetricsSink.noop())
+         * @return this Builder object
+         */
+        public Builder<T> metricsSink(MetricsSink metricsSink) {
+            this.metricsSink = metricsSink;
+            return this;
+        }
 
-        int count = 0;
-        while (itemIterator.hasNext()) {
-            RandomListItem randomListItem = itemIterator.next();
+        /**
+         * <p>Maps the value of the "rating" field, or of a rating function, to the weight it carries
+         * during randomization.  Defaults to RatingWeights.LEGACY, which gives ratings of 1 through 5
+         * weights of 1, 2, 4, 8 and 16.</p>
+         * <p>For example, RatingWeights.LINEAR uses every rating as its own weight, and
+         * {@code rating -> Math.pow(1.5, rating)} gives each rating step half again the weight of the
+         * step below it.</p>
+         *
+         * @param ratingCurve function returning a finite, non-negative weight for a rating (a null rating is passed as 0)
+         * @return this Builder object
+         */
+        public Builder<T> ratingCurve(IntToDoubleFunction ratingCurve) {
+            this.ratingCurve = ratingCurve;
+            return this;
+        }
 
-            if (randomListItem.originalToString.equals(originalToString)) {
-                itemIterator.remove();
-                count++;
-            }
+        /**
+         * @return new RandomGenerator object using the settings of this Builder
+         */
+        public RandomGenerator<T> build() {
+            return new RandomGenerator<T>(randomSource, forkJoinPool, keyStrategy, metricsSink, ratingCurve);
         }
-        logger.debug("Removed " + count + " instance(s) of " + originalToString);
     }
 
-    @Data
-    private class RandomListItem {
-        public RandomListItem(String originalToString, T thisT) {
-            this.originalToString = originalToString;
-            this.thisT = thisT;
+    /**
+     * Measurements of a single randomize call.  The draw engines apply the key function once for
+     * every item they draw, so counting the calls gives the number of draws, and the draws not
+     * returned are the duplicates that were removed.
+     */
+    private static final class CallMetrics<T> implements Function<T, Object> {
+        private final Function<? super T, ?> keyFunction;
+        private final long startNanos;
+        private long expandedSize = -1;
+        private int draws;
+
+        CallMetrics(Function<? super T, ?> keyFunction, long startNanos) {
+            this.keyFunction = keyFunction;
+            this.startNanos = startNanos;
         }
 
-        private String originalToString;
-        private T thisT;
+        @Override
+        public Object apply(T tItem) {
+            draws++;
+            return keyFunction.apply(tItem);
+        }
+
+        void record(MetricsSink metricsSink, int inputSize, int itemsReturned) {
+            metricsSink.record(System.nanoTime() - startNanos, inputSize, expandedSize >= 0 ? expandedSize : inputSize,
+                    Math.max(draws - itemsReturned, 0), itemsReturned);
+        }
     }
 }
-
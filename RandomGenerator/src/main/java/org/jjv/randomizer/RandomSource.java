@@ -0,0 +1,90 @@
+package org.jjv.randomizer;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * <p>Source of randomness used by RandomGenerator.</p>
+ * <p>RandomGenerator calls {@link #split()} once at the start of every randomize call and uses the
+ * returned source for every pick in that call, so a source returned by split() is only ever used
+ * by a single thread.  The source held by a RandomGenerator may be shared by many threads and
+ * therefore needs a thread-safe split() implementation.</p>
+ */
+public interface RandomSource {
+
+    /**
+     * @param bound the upper bound (exclusive), which must be positive
+     * @return a uniformly distributed int value between zero (inclusive) and bound (exclusive)
+     */
+    int nextInt(int bound);
+
+    /**
+     * @return a uniformly distributed double value between zero (inclusive) and one (exclusive)
+     */
+    double nextDouble();
+
+    /**
+     * @return a source for use by a single randomize call
+     */
+    RandomSource split();
+
+    /**
+     * The default source, which draws from the current thread's ThreadLocalRandom and therefore
+     * needs no allocation or synchronization per call.
+     *
+     * @return source backed by java.util.concurrent.ThreadLocalRandom
+     */
+    static RandomSource threadLocal() {
+        return ThreadLocalRandomSource.INSTANCE;
+    }
+
+    /**
+     * A source backed by java.util.SplittableRandom.  Every randomize call splits a new, independent
+     * generator from this source.
+     *
+     * @return source backed by a new SplittableRandom
+     */
+    static RandomSource splittable() {
+        return new SplittableRandomSource(new SplittableRandom());
+    }
+
+    /**
+     * <p>A reproducible source backed by a java.util.SplittableRandom created from the given seed.</p>
+     * <p>Every randomize call splits the next generator from the seeded one, so a RandomGenerator
+     * created with the same seed returns the same results for the same sequence of calls.  Work that
+     * is divided between threads is given generators split in a fixed order before it is handed out,
+     * so the results do not depend on thread scheduling.</p>
+     *
+     * @param seed the initial seed
+     * @return source backed by a SplittableRandom created with the given seed
+     */
+    static RandomSource seeded(long seed) {
+        return new SplittableRandomSource(new SplittableRandom(seed));
+    }
+
+    /**
+     * Adapts an existing java.util.Random (for example a SecureRandom).  The Random object is shared
+     * by every randomize call, so it is subject to the synchronization of the given implementation.
+     *
+     * @param random Random object to draw from
+     * @return source backed by the given Random object
+     */
+    static RandomSource of(final Random random) {
+        return new RandomSource() {
+            @Override
+            public int nextInt(int bound) {
+                return random.nextInt(bound);
+            }
+
+            @Override
+            public double nextDouble() {
+                return random.nextDouble();
+            }
+
+            @Override
+            public RandomSource split() {
+                return this;
+            }
+        };
+    }
+}
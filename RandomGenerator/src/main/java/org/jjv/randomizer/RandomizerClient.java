@@ -0,0 +1,69 @@
+package org.jjv.randomizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Client for a {@link RandomizerServer} on the same machine, used by the -connect CLI option.</p>
+ * <p>Each call opens a connection, sends one request line, reads one response line and closes the
+ * connection.  Scripts that send many requests can keep a single connection open instead, since
+ * the protocol is plain text.</p>
+ */
+final class RandomizerClient {
+
+    private RandomizerClient() {
+    }
+
+    /**
+     * @param port       loopback port the server is listening on
+     * @param listString delimited String to randomize
+     * @param delimiter  delimiter between the elements of listString
+     * @param returnSize the number of elements to return, or null to return all elements
+     * @param seed       the seed to use, or null to use a random order
+     * @return randomized String returned by the server
+     * @throws IOException if the server cannot be reached or returns an error
+     */
+    static String randomize(int port, String listString, String delimiter, Integer returnSize, String seed) throws IOException {
+        StringBuilder request = new StringBuilder("randomize\t");
+        request.append(RandomizerServer.escape(listString));
+        request.append('\t').append(RandomizerServer.escape(delimiter));
+        request.append('\t').append(returnSize != null ? returnSize.toString() : "");
+        request.append('\t').append(seed != null ? seed : "");
+
+        String response = send(port, request.toString());
+        int tab = response.indexOf('\t');
+        String status = tab >= 0 ? response.substring(0, tab) : response;
+        String value = tab >= 0 ? Main.unescape(response.substring(tab + 1)) : "";
+
+        if (!status.equals(RandomizerServer.OK)) {
+            throw new IOException("the server returned an error: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * @param port    loopback port the server is listening on
+     * @param request request line, without the line break
+     * @return response line, without the line break
+     * @throws IOException if the server cannot be reached or closes the connection without responding
+     */
+    static String send(int port, String request) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream out = socket.getOutputStream();
+            out.write((request + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+
+            String response = reader.readLine();
+            if (response == null) {
+                throw new IOException("the server closed the connection without responding");
+            }
+            return response;
+        }
+    }
+}
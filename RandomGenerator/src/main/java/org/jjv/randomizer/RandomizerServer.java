@@ -0,0 +1,300 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <p>Long-running randomizer used by the -serve CLI option, so that scripts which randomize many
+ * strings pay for JVM startup once instead of once per string.</p>
+ * <p>The server listens on a loopback TCP port only, and handles every connection on a thread
+ * from a fixed pool, sized from the number of processors.  Connections that arrive while every
+ * thread is busy wait in a bounded queue; when the queue is full too, the connection receives an
+ * ERROR response and is closed.  A connection that sends nothing for the idle timeout is closed,
+ * so idle connections do not hold a thread forever, and a request longer than the maximum request
+ * length is discarded without being held in memory and answered with an ERROR response.</p>
+ * <p>A connection can send any number of requests, one per line, and receives one response line
+ * per request.  Fields are separated by tabs, and the \n, \r, \t
+ * and \\ escape sequences are used for those characters within a field (see
+ * {@link Main#unescape(String)}):</p>
+ * <ul>
+ * <li>randomize&lt;TAB&gt;listString[&lt;TAB&gt;delimiter[&lt;TAB&gt;returnSize[&lt;TAB&gt;seed]]] - randomizes
+ * the listString the same way as the CLI; empty fields use the CLI defaults</li>
+ * <li>ping - returns the version of the server</li>
+ * <li>quit - closes the connection</li>
+ * </ul>
+ * <p>Every response is either OK&lt;TAB&gt;result or ERROR&lt;TAB&gt;message.</p>
+ */
+final class RandomizerServer implements Closeable {
+
+    final static Logger logger = LogManager.getLogger(RandomizerServer.class);
+
+    static final String OK = "OK";
+    static final String ERROR = "ERROR";
+
+    /**
+     * Default number of connection threads.
+     */
+    static final int DEFAULT_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Default maximum request length of 1M characters.
+     */
+    static final int DEFAULT_MAX_REQUEST_LENGTH = 1 << 20;
+
+    /**
+     * Default idle timeout of 60 seconds.
+     */
+    static final int DEFAULT_IDLE_TIMEOUT_MILLIS = 60000;
+
+    private static final int QUEUED_CONNECTIONS_PER_THREAD = 4;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executorService;
+    private final RandomGenerator<String> randomGenerator = new RandomGenerator<String>();
+    private final String version;
+    private final int maxRequestLength;
+    private final int idleTimeoutMillis;
+
+    /**
+     * @param port    loopback port to listen on, or 0 to use any free port
+     * @param version version returned by the ping command
+     * @throws IOException if the port cannot be bound
+     */
+    RandomizerServer(int port, String version) throws IOException {
+        this(port, version, DEFAULT_THREADS, DEFAULT_MAX_REQUEST_LENGTH, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * @param port              loopback port to listen on, or 0 to use any free port
+     * @param version           version returned by the ping command
+     * @param threads           number of connections handled at once; up to four times as many more wait in a queue
+     * @param maxRequestLength  the number of characters a request line may have, without its line break
+     * @param idleTimeoutMillis the number of milliseconds a connection may wait between requests before it is closed
+     * @throws IOException if the port cannot be bound
+     */
+    RandomizerServer(int port, String version, int threads, int maxRequestLength, int idleTimeoutMillis) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be greater than zero");
+        }
+        if (maxRequestLength < 1) {
+            throw new IllegalArgumentException("maxRequestLength must be greater than zero");
+        }
+        if (idleTimeoutMillis < 1) {
+            throw new IllegalArgumentException("idleTimeoutMillis must be greater than zero");
+        }
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.version = version;
+        this.maxRequestLength = maxRequestLength;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+
+        AtomicInteger connections = new AtomicInteger();
+        this.executorService = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(threads * QUEUED_CONNECTIONS_PER_THREAD), runnable -> {
+            Thread thread = new Thread(runnable, "randomizer-connection-" + connections.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return port the server is listening on
+     */
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     *
+     * @throws IOException if a connection cannot be accepted
+     */
+    void serve() throws IOException {
+        logger.info("listening on {}:{}", serverSocket.getInetAddress().getHostAddress(), getPort());
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    break;
+                }
+                throw e;
+            }
+            try {
+                executorService.execute(() -> handleConnection(socket));
+            } catch (RejectedExecutionException e) {
+                reject(socket);
+            }
+        }
+    }
+
+    private void reject(Socket socket) {
+        if (serverSocket.isClosed()) {
+            closeQuietly(socket);
+            return;
+        }
+        logger.debug("rejecting connection, every thread is busy and the queue is full");
+        try (Socket connection = socket; OutputStream out = connection.getOutputStream()) {
+            out.write((ERROR + "\tserver is busy, try again later\n").getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            logger.debug("connection closed: {}", e.getMessage());
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("connection closed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the connections that are open.
+     *
+     * @throws IOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        executorService.shutdownNow();
+    }
+
+    private void handleConnection(Socket socket) {
+        try (Socket connection = socket;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8))) {
+            connection.setSoTimeout(idleTimeoutMillis);
+            StringBuilder line = new StringBuilder();
+            int length;
+            while ((length = readLine(reader, line)) >= 0 && !(length <= maxRequestLength && "quit".contentEquals(line))) {
+                writer.write(length > maxRequestLength
+                        ? ERROR + "\trequest is longer than " + maxRequestLength + " characters" : handle(line.toString()));
+                writer.write('\n');
+                writer.flush();
+            }
+        } catch (SocketTimeoutException e) {
+            logger.debug("connection idle for {} ms, closing it", idleTimeoutMillis);
+        } catch (IOException e) {
+            logger.debug("connection closed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads one request line into line, keeping at most maxRequestLength characters of it.  A line
+     * ends with \n, and a \r before it is dropped.
+     *
+     * @return the length of the whole line, which is larger than maxRequestLength when the line was cut, or -1 at the
+     * end of the stream
+     */
+    private int readLine(BufferedReader reader, StringBuilder line) throws IOException {
+        line.setLength(0);
+        int length = 0;
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (length++ < maxRequestLength + 1) {
+                line.append((char) c);
+            }
+        }
+        if (c == -1 && length == 0) {
+            return -1;
+        }
+        if (length <= maxRequestLength + 1 && line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+            length--;
+        }
+        return length;
+    }
+
+    /**
+     * @param request request line, without the line break
+     * @return response line, without the line break
+     */
+    String handle(String request) {
+        String[] fields = request.split("\t", -1);
+
+        try {
+            switch (fields[0]) {
+            case "randomize":
+                return OK + "\t" + escape(randomize(fields));
+            case "ping":
+                return OK + "\t" + version;
+            default:
+                throw new IllegalArgumentException("unknown command " + fields[0]);
+            }
+        } catch (RuntimeException e) {
+            logger.debug("request failed: {}", e.getMessage());
+            return ERROR + "\t" + escape(String.valueOf(e.getMessage()));
+        }
+    }
+
+    private String randomize(String[] fields) {
+        if (fields.length < 2 || fields.length > 5) {
+            throw new IllegalArgumentException("randomize expects listString, delimiter, returnSize and seed fields");
+        }
+        String delimiter = hasField(fields, 2) ? Main.unescape(fields[2]) : RandomGenerator.DEFAULT_DELIMITER;
+        Integer returnSize = hasField(fields, 3) ? Integer.valueOf(fields[3]) : Integer.valueOf(0);
+
+        RandomGenerator<String> generator = randomGenerator;
+        if (hasField(fields, 4)) {
+            generator = new RandomGenerator<String>(RandomSource.seeded(Long.parseLong(fields[4])));
+        }
+        return generator.randomize(Main.unescape(fields[1]), delimiter, returnSize);
+    }
+
+    private static boolean hasField(String[] fields, int index) {
+        return fields.length > index && !fields[index].isEmpty();
+    }
+
+    /**
+     * Replaces line breaks, tabs and backslashes with the escape sequences reversed by
+     * {@link Main#unescape(String)}, so that a value fits within one field of a request or response.
+     *
+     * @param value value to escape
+     * @return escaped value
+     */
+    static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,16 @@
+package org.jjv.randomizer;
+
+/**
+ * <p>Optional interface for List items that carry a rating.</p>
+ * <p>When a List of Rated items is randomized with rating enabled, the rating is read through
+ * this interface instead of looking up the "rating" field by reflection.  A class with a
+ * <code>java.lang.Integer</code> rating field and a standard getter (for example, one generated
+ * by Lombok) only needs to declare that it implements Rated.</p>
+ */
+public interface Rated {
+
+    /**
+     * @return the rating of this item (values of 1 through 5 are recommended)
+     */
+    Integer getRating();
+}
@@ -0,0 +1,75 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.function.Function;
+
+/**
+ * <p>Reads the rating of List items, caching how to do so for each class.</p>
+ * <p>Items implementing {@link Rated} are read through the interface.  For any other class the
+ * declared "rating" field is located and converted to a MethodHandle the first time the class is
+ * seen, so reflection is paid once per class instead of once per item.</p>
+ * <p>In a GraalVM native image, fields are only visible to reflection when they are registered in
+ * a reflect-config.json, so classes used there should implement Rated instead (or register their
+ * "rating" field).  An unregistered field is treated as missing, giving every item the default
+ * weight.</p>
+ */
+final class RatingAccessor {
+
+    final static Logger logger = LogManager.getLogger(RatingAccessor.class);
+
+    private static final Function<Object, Integer> RATED_ACCESSOR = item -> ((Rated) item).getRating();
+
+    private static final ClassValue<Function<Object, Integer>> ACCESSORS = new ClassValue<Function<Object, Integer>>() {
+        @Override
+        protected Function<Object, Integer> computeValue(Class<?> type) {
+            return Rated.class.isAssignableFrom(type) ? RATED_ACCESSOR : createFieldAccessor(type);
+        }
+    };
+
+    private RatingAccessor() {
+    }
+
+    /**
+     * Returns the cached rating accessor for a class.
+     *
+     * @param type class of the List item
+     * @return function returning the rating of an item of the given class, or null if the class
+     * neither implements Rated nor declares a java.lang.Integer field named "rating"
+     */
+    static Function<Object, Integer> forClass(Class<?> type) {
+        return ACCESSORS.get(type);
+    }
+
+    private static Function<Object, Integer> createFieldAccessor(Class<?> type) {
+        for (Field field : type.getDeclaredFields()) {
+            if (field.getName().equals(RandomGenerator.RATING) && field.getType().equals(Integer.class)) {
+                try {
+                    field.setAccessible(true);
+                    final MethodHandle getter = MethodHandles.lookup().unreflectGetter(field)
+                            .asType(MethodType.methodType(Integer.class, Object.class));
+                    logger.debug("Cached rating accessor for {}", type.getName());
+
+                    return item -> {
+                        try {
+                            return (Integer) getter.invokeExact(item);
+                        } catch (Throwable t) {
+                            logger.debug("Exception occurred trying to get rating");
+                            return 1;
+                        }
+                    };
+                } catch (Exception e) {
+                    logger.debug("Exception occurred trying to access rating field of {}", type.getName());
+                    return item -> 1;
+                }
+            }
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,79 @@
+package org.jjv.randomizer;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * <p>Maps the value of a "rating" field to the weight it carries during randomization.</p>
+ * <p>The mapping is a rating curve, which turns a rating into a weight.  A weight can be any
+ * finite, non-negative double, so a curve is free to use fractional weights or weights in the
+ * millions; an item with a weight of zero is never drawn.  A null rating is passed to the curve
+ * as 0.</p>
+ */
+public final class RatingWeights {
+
+    /**
+     * <p>The default rating curve.  Ratings of 1 through 5 double the weight at every step (1, 2,
+     * 4, 8 and 16), which is the number of chances the original copy-per-rating implementation
+     * gave each item.  Any other value has a weight of 1.</p>
+     */
+    public static final IntToDoubleFunction LEGACY = rating -> weightOf(Integer.valueOf(rating));
+
+    /**
+     * A rating curve whose weight is the rating itself, for ratings that are already weights,
+     * such as popularity scores.
+     */
+    public static final IntToDoubleFunction LINEAR = rating -> rating;
+
+    private RatingWeights() {
+    }
+
+    /**
+     * <p>Returns the weight for a given rating.  Ratings of 1 through 5 double the
+     * weight at every step (1, 2, 4, 8 and 16), which is the number of chances the
+     * original copy-per-rating implementation gave each item.  Any other value,
+     * including null, has a weight of 1.</p>
+     *
+     * @param rating value of the rating field
+     * @return weight of the rating
+     */
+    static int weightOf(Integer rating) {
+        if (rating == null) {
+            return 1;
+        }
+
+        switch (rating) {
+        case 2:
+            return 2;
+        case 3:
+            return 4;
+        case 4:
+            return 8;
+        case 5:
+            return 16;
+        default:
+            return 1;
+        }
+    }
+
+    /**
+     * @param rating      value of the rating field
+     * @param ratingCurve rating curve to apply
+     * @return weight of the rating on the given curve
+     * @throws IllegalArgumentException if the curve returns a negative, infinite or NaN weight
+     */
+    static double weightOf(Integer rating, IntToDoubleFunction ratingCurve) {
+        return checkWeight(ratingCurve.applyAsDouble(rating != null ? rating : 0));
+    }
+
+    /**
+     * @param weight weight to check
+     * @return the given weight
+     * @throws IllegalArgumentException if the weight is negative, infinite or NaN
+     */
+    static double checkWeight(double weight) {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException("weight must be finite and not negative, but was " + weight);
+        }
+        return weight;
+    }
+}
@@ -0,0 +1,185 @@
+package org.jjv.randomizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>Single-pass reservoir samplers, which keep at most maxResults items no matter how many
+ * items are passed to them.</p>
+ * <p>The unweighted sampler implements Algorithm L (Li, 1994), which computes how many items to
+ * skip before the next replacement instead of drawing a random number for every item.  The
+ * weighted sampler implements A-ExpJ (Efraimidis and Spirakis, 2006), which keeps the items with
+ * the largest keys u^(1/weight) and likewise jumps over items that cannot enter the reservoir.</p>
+ */
+final class ReservoirSampler {
+
+    private ReservoirSampler() {
+    }
+
+    /**
+     * Creates an unweighted sampler.
+     *
+     * @param maxResults size of the reservoir
+     * @param random     source of randomness for this sample
+     * @param <E>        type of the items being sampled
+     * @return Sampler to pass every item to
+     */
+    static <E> Sampler<E> uniform(int maxResults, RandomSource random) {
+        return new AlgorithmL<E>(maxResults, random);
+    }
+
+    /**
+     * Creates a weighted sampler.
+     *
+     * @param maxResults     size of the reservoir
+     * @param weightFunction function returning the weight of an item, or a value of zero or less
+     *                       for an item that should never be selected
+     * @param random         source of randomness for this sample
+     * @param <E>            type of the items being sampled
+     * @return Sampler to pass every item to
+     */
+    static <E> Sampler<E> weighted(int maxResults, ToDoubleFunction<? super E> weightFunction, RandomSource random) {
+        return new AExpJ<E>(maxResults, weightFunction, random);
+    }
+
+    /**
+     * Receives items one at a time and returns the sample once the input is exhausted.
+     *
+     * @param <E> type of the items being sampled
+     */
+    interface Sampler<E> extends Consumer<E> {
+
+        /**
+         * @return new List object containing the sampled items in random order
+         */
+        List<E> result();
+    }
+
+    private static double uniformOpenZero(RandomSource random) {
+        // (0, 1], so that log() is always finite
+        return 1.0 - random.nextDouble();
+    }
+
+    private static final class AlgorithmL<E> implements Sampler<E> {
+        private final int maxResults;
+        private final RandomSource random;
+        private final List<E> reservoir;
+        private double w;
+        private long nextIndex;
+        private long index;
+
+        AlgorithmL(int maxResults, RandomSource random) {
+            this.maxResults = maxResults;
+            this.random = random;
+            this.reservoir = new ArrayList<E>(Math.min(maxResults, 1024));
+        }
+
+        @Override
+        public void accept(E item) {
+            if (index < maxResults) {
+                reservoir.add(item);
+                if (index == maxResults - 1) {
+                    w = Math.exp(Math.log(uniformOpenZero(random)) / maxResults);
+                    nextIndex = index + skip() + 1;
+                }
+            } else if (index == nextIndex) {
+                reservoir.set(random.nextInt(maxResults), item);
+                w *= Math.exp(Math.log(uniformOpenZero(random)) / maxResults);
+                nextIndex = index + skip() + 1;
+            }
+            index++;
+        }
+
+        private long skip() {
+            return (long) Math.floor(Math.log(uniformOpenZero(random)) / Math.log(1 - w));
+        }
+
+        @Override
+        public List<E> result() {
+            // the reservoir keeps the first items in input order, so shuffle before returning it
+            for (int i = reservoir.size() - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                E item = reservoir.get(i);
+                reservoir.set(i, reservoir.get(j));
+                reservoir.set(j, item);
+            }
+            return new ArrayList<E>(reservoir);
+        }
+    }
+
+    private static final class AExpJ<E> implements Sampler<E> {
+        private final int maxResults;
+        private final ToDoubleFunction<? super E> weightFunction;
+        private final RandomSource random;
+        private final PriorityQueue<KeyedItem<E>> reservoir;
+        private double jump;
+
+        AExpJ(int maxResults, ToDoubleFunction<? super E> weightFunction, RandomSource random) {
+            this.maxResults = maxResults;
+            this.weightFunction = weightFunction;
+            this.random = random;
+            this.reservoir = new PriorityQueue<KeyedItem<E>>(Math.min(maxResults, 1024));
+        }
+
+        @Override
+        public void accept(E item) {
+            double weight = weightFunction.applyAsDouble(item);
+            if (weight <= 0) {
+                return;
+            }
+
+            // keys are kept as log(u) / weight, which orders items the same way as u^(1/weight)
+            if (reservoir.size() < maxResults) {
+                reservoir.add(new KeyedItem<E>(Math.log(uniformOpenZero(random)) / weight, item));
+                if (reservoir.size() == maxResults) {
+                    jump = nextJump();
+                }
+                return;
+            }
+
+            jump -= weight;
+            if (jump <= 0) {
+                double threshold = Math.exp(weight * reservoir.peek().key);
+                double u = threshold + (1 - threshold) * uniformOpenZero(random);
+                reservoir.poll();
+                reservoir.add(new KeyedItem<E>(Math.log(u) / weight, item));
+                jump = nextJump();
+            }
+        }
+
+        private double nextJump() {
+            return Math.log(uniformOpenZero(random)) / reservoir.peek().key;
+        }
+
+        @Override
+        public List<E> result() {
+            // ordering by descending key gives the same order as successive weighted draws
+            List<KeyedItem<E>> keyedItems = new ArrayList<KeyedItem<E>>(reservoir);
+            keyedItems.sort((first, second) -> Double.compare(second.key, first.key));
+
+            List<E> results = new ArrayList<E>(keyedItems.size());
+            for (KeyedItem<E> keyedItem : keyedItems) {
+                results.add(keyedItem.item);
+            }
+            return results;
+        }
+    }
+
+    private static final class KeyedItem<E> implements Comparable<KeyedItem<E>> {
+        private final double key;
+        private final E item;
+
+        KeyedItem(double key, E item) {
+            this.key = key;
+            this.item = item;
+        }
+
+        @Override
+        public int compareTo(KeyedItem<E> other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package org.jjv.randomizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * <p>Linear-time draw engine used by RandomGenerator.</p>
+ * <p>Items are drawn with a swap-remove Fisher-Yates pass over a copy of the
+ * candidates.  An item whose key has already been drawn is discarded, so only
+ * the first occurrence of each key is returned.  This produces exactly the same
+ * distribution as repeatedly picking a random candidate and removing every
+ * candidate with the same key, without rescanning the remaining candidates
+ * after each pick.</p>
+ * <p>When only a few items are requested from a large RandomAccess list, the
+ * Fisher-Yates pass runs over index space instead: only the positions that were
+ * swapped are recorded, so the caller's list is never copied and the work and
+ * memory are proportional to the number of draws.</p>
+ * <p>Weighted draws use a Fenwick tree of item weights, so each item is held once
+ * regardless of its weight and every draw costs O(log n).</p>
+ */
+final class ShuffleEngine {
+
+    /**
+     * A sparse draw is used when maxResults is smaller than the list size divided by this value.
+     */
+    static final int SPARSE_RATIO = 16;
+
+    private ShuffleEngine() {
+    }
+
+    /**
+     * Draws distinct items from the candidates list in random order.
+     *
+     * @param candidates  List of items to draw from (left unchanged)
+     * @param maxResults  the maximum number of items to draw (specify 0 to draw all distinct items)
+     * @param keyFunction function returning the value used to detect duplicate items
+     * @param random      source of randomness for this draw
+     * @param <E>         type of the items being drawn
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    static <E> List<E> draw(List<E> candidates, int maxResults, Function<? super E, ?> keyFunction, RandomSource random) {
+        return draw(candidates, maxResults, keyFunction, random, null);
+    }
+
+    /**
+     * Draws distinct items from the candidates list in random order, reusing the buffers of the
+     * given scratch object instead of allocating new ones.
+     *
+     * @param candidates  List of items to draw from (left unchanged)
+     * @param maxResults  the maximum number of items to draw (specify 0 to draw all distinct items)
+     * @param keyFunction function returning the value used to detect duplicate items
+     * @param random      source of randomness for this draw
+     * @param scratch     buffers to reuse, or null to allocate new buffers
+     * @param <E>         type of the items being drawn
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    static <E> List<E> draw(List<E> candidates, int maxResults, Function<? super E, ?> keyFunction, RandomSource random,
+                            Scratch scratch) {
+        if (isSparse(candidates, maxResults)) {
+            return drawSparse(candidates, maxResults, keyFunction, random);
+        }
+        return drawCopy(candidates, maxResults, keyFunction, random, scratch);
+    }
+
+    /**
+     * @param candidates List of items to draw from
+     * @param maxResults the maximum number of items to draw (0 for all items)
+     * @return true if draw() will use a sparse draw for the given arguments
+     */
+    static boolean isSparse(List<?> candidates, int maxResults) {
+        return maxResults > 0 && maxResults < candidates.size() / SPARSE_RATIO && candidates instanceof RandomAccess;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> List<E> drawCopy(List<E> candidates, int maxResults, Function<? super E, ?> keyFunction, RandomSource random,
+                                        Scratch scratch) {
+        Object[] pool = scratch != null ? scratch.pool(candidates) : candidates.toArray();
+        int remaining = candidates.size();
+        int limit = maxResults > 0 ? Math.min(maxResults, remaining) : remaining;
+
+        List<E> results = new ArrayList<E>(limit);
+        Set<Object> drawnKeys = scratch != null ? scratch.drawnKeys() : new HashSet<Object>();
+
+        while (remaining > 0 && results.size() < limit) {
+            int winner = remaining == 1 ? 0 : random.nextInt(remaining);
+            E item = (E) pool[winner];
+
+            remaining--;
+            pool[winner] = pool[remaining];
+            pool[remaining] = null;
+
+            if (drawnKeys.add(keyFunction.apply(item))) {
+                results.add(item);
+            }
+        }
+
+        if (scratch != null) {
+            scratch.release(remaining);
+        }
+        return results;
+    }
+
+    /**
+     * Draws distinct items from a RandomAccess candidates list without copying it, recording only
+     * the positions that have been swapped by the partial Fisher-Yates pass.
+     *
+     * @param candidates  RandomAccess List of items to draw from (left unchanged)
+     * @param maxResults  the maximum number of items to draw (must be greater than zero)
+     * @param keyFunction function returning the value used to detect duplicate items
+     * @param random      source of randomness for this draw
+     * @param <E>         type of the items being drawn
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    static <E> List<E> drawSparse(List<E> candidates, int maxResults, Function<? super E, ?> keyFunction, RandomSource random) {
+        int remaining = candidates.size();
+        int limit = Math.min(maxResults, remaining);
+
+        List<E> results = new ArrayList<E>(limit);
+        Set<Object> drawnKeys = new HashSet<Object>();
+        Map<Integer, Integer> swappedPositions = new HashMap<Integer, Integer>();
+
+        while (remaining > 0 && results.size() < limit) {
+            int winner = remaining == 1 ? 0 : random.nextInt(remaining);
+            remaining--;
+
+            Integer swappedWinner = swappedPositions.get(winner);
+            Integer swappedLast = swappedPositions.remove(remaining);
+            if (winner != remaining) {
+                swappedPositions.put(winner, swappedLast != null ? swappedLast : remaining);
+            }
+
+            E item = candidates.get(swappedWinner != null ? swappedWinner : winner);
+            if (drawnKeys.add(keyFunction.apply(item))) {
+                results.add(item);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Draws distinct items from the candidates list in random order, where the chance of an
+     * item being drawn next is its weight divided by the sum of the weights not yet drawn.
+     *
+     * @param candidates  List of items to draw from (left unchanged)
+     * @param weights     weight of each candidate, in the same order as the candidates
+     * @param maxResults  the maximum number of items to draw (specify 0 to draw all distinct items)
+     * @param keyFunction function returning the value used to detect duplicate items
+     * @param random      source of randomness for this draw
+     * @param <E>         type of the items being drawn
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    static <E> List<E> drawWeighted(List<E> candidates, double[] weights, int maxResults, Function<? super E, ?> keyFunction,
+                                    RandomSource random) {
+        FenwickTree fenwickTree = new FenwickTree(weights);
+        int limit = maxResults > 0 ? Math.min(maxResults, candidates.size()) : candidates.size();
+
+        List<E> results = new ArrayList<E>(limit);
+        Set<Object> drawnKeys = new HashSet<Object>();
+
+        while (fenwickTree.size() > 0 && results.size() < limit) {
+            int winner = fenwickTree.sample(random.nextDouble());
+            fenwickTree.update(winner, 0);
+
+            E item = candidates.get(winner);
+            if (drawnKeys.add(keyFunction.apply(item))) {
+                results.add(item);
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Buffers that are reused by consecutive draws on the same thread, such as the draws of a batch.
+     */
+    static final class Scratch {
+
+        /**
+         * A key set that has grown beyond this size is replaced rather than cleared, so that one
+         * large draw does not slow down the draws that follow it.
+         */
+        private static final int MAX_RETAINED_KEYS = 1 << 12;
+
+        private Object[] pool = new Object[16];
+        private Set<Object> drawnKeys = new HashSet<Object>();
+
+        Object[] pool(List<?> candidates) {
+            if (pool.length < candidates.size()) {
+                pool = new Object[Math.max(candidates.size(), pool.length * 2)];
+            }
+            return candidates.toArray(pool);
+        }
+
+        Set<Object> drawnKeys() {
+            return drawnKeys;
+        }
+
+        /**
+         * Empties the buffers after a draw, so that its items are not kept reachable.
+         *
+         * @param remaining number of pool entries that were not drawn
+         */
+        void release(int remaining) {
+            Arrays.fill(pool, 0, remaining, null);
+            if (drawnKeys.size() > MAX_RETAINED_KEYS) {
+                drawnKeys = new HashSet<Object>();
+            } else {
+                drawnKeys.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.jjv.randomizer;
+
+import java.util.SplittableRandom;
+
+/**
+ * <p>RandomSource backed by a java.util.SplittableRandom.</p>
+ * <p>SplittableRandom is not thread-safe, so split() is synchronized to allow a single instance to
+ * be shared by a RandomGenerator.  The next methods are not synchronized, since they are only
+ * called on the instance returned by split(), which belongs to a single randomize call.</p>
+ */
+final class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom splittableRandom;
+
+    SplittableRandomSource(SplittableRandom splittableRandom) {
+        this.splittableRandom = splittableRandom;
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return splittableRandom.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return splittableRandom.nextDouble();
+    }
+
+    @Override
+    public synchronized RandomSource split() {
+        return new SplittableRandomSource(splittableRandom.split());
+    }
+}
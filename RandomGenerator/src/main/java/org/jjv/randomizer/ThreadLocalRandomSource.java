@@ -0,0 +1,29 @@
+package org.jjv.randomizer;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * RandomSource drawing from the ThreadLocalRandom of whichever thread is calling.
+ */
+final class ThreadLocalRandomSource implements RandomSource {
+
+    static final ThreadLocalRandomSource INSTANCE = new ThreadLocalRandomSource();
+
+    private ThreadLocalRandomSource() {
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return ThreadLocalRandom.current().nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return ThreadLocalRandom.current().nextDouble();
+    }
+
+    @Override
+    public RandomSource split() {
+        return this;
+    }
+}
@@ -0,0 +1,207 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * <p>A mutable set of rated items to draw from, for catalogs whose items and ratings change
+ * between draws.</p>
+ * <p>The weight of every item is kept in a Fenwick tree, so adding an item, removing an item,
+ * changing the rating of an item and drawing an item each take O(log n) time, instead of the
+ * O(n) it takes to randomize the whole List again after every change.  Ratings are mapped to
+ * weights by a rating curve, which defaults to RatingWeights.LEGACY: ratings of 1 through 5 have
+ * weights of 1, 2, 4, 8 and 16, and any other rating, including null, has a weight of 1.</p>
+ * <p>Items are identified by equals() and hashCode(), so every item is held at most once.</p>
+ * <p>A WeightedSampler is not thread-safe.  Access to a WeightedSampler that is shared between
+ * threads must be synchronized.</p>
+ *
+ * @param <T> type of the items to draw
+ */
+public final class WeightedSampler<T> {
+
+    final static Logger logger = LogManager.getLogger(WeightedSampler.class);
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final RandomSource randomSource;
+    private final IntToDoubleFunction ratingCurve;
+    private final Map<T, Integer> slots = new HashMap<T, Integer>();
+    private final FenwickTree fenwickTree = new FenwickTree(new double[INITIAL_CAPACITY]);
+    private Object[] items = new Object[INITIAL_CAPACITY];
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int usedSlots;
+
+    /**
+     * Creates a WeightedSampler that draws from the calling thread's ThreadLocalRandom.
+     */
+    public WeightedSampler() {
+        this(RandomSource.threadLocal());
+    }
+
+    /**
+     * Creates a WeightedSampler that draws from the given randomSource.  The randomSource is split
+     * once per draw call, the same way RandomGenerator splits it once per randomize call.
+     *
+     * @param randomSource source of randomness, such as RandomSource.threadLocal() or RandomSource.seeded(42L)
+     */
+    public WeightedSampler(RandomSource randomSource) {
+        this(randomSource, RatingWeights.LEGACY);
+    }
+
+    /**
+     * Creates a WeightedSampler that draws from the given randomSource and maps ratings to weights
+     * with the given ratingCurve.
+     *
+     * @param randomSource source of randomness, such as RandomSource.threadLocal() or RandomSource.seeded(42L)
+     * @param ratingCurve  function returning a finite, non-negative weight for a rating (a null rating is passed as 0)
+     */
+    public WeightedSampler(RandomSource randomSource, IntToDoubleFunction ratingCurve) {
+        if (randomSource == null) {
+            throw new IllegalArgumentException("randomSource cannot be null");
+        }
+        if (ratingCurve == null) {
+            throw new IllegalArgumentException("ratingCurve cannot be null");
+        }
+        this.randomSource = randomSource;
+        this.ratingCurve = ratingCurve;
+    }
+
+    /**
+     * Adds an item with the given rating in O(log n).
+     *
+     * @param item   item to add
+     * @param rating rating of the item
+     * @return true if the item was added, or false if the sampler already holds the item
+     */
+    public boolean add(T item, Integer rating) {
+        if (item == null) {
+            throw new IllegalArgumentException("item cannot be null");
+        }
+        if (slots.containsKey(item)) {
+            return false;
+        }
+        double weight = RatingWeights.weightOf(rating, ratingCurve);
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (usedSlots == items.length) {
+                items = Arrays.copyOf(items, usedSlots * 2);
+                fenwickTree.ensureCapacity(usedSlots * 2);
+            }
+            slot = usedSlots++;
+        }
+
+        items[slot] = item;
+        slots.put(item, slot);
+        fenwickTree.update(slot, weight);
+        return true;
+    }
+
+    /**
+     * Removes an item in O(log n).
+     *
+     * @param item item to remove
+     * @return true if the item was removed, or false if the sampler does not hold the item
+     */
+    public boolean remove(T item) {
+        Integer slot = slots.remove(item);
+        if (slot == null) {
+            return false;
+        }
+
+        items[slot] = null;
+        fenwickTree.update(slot, 0);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Changes the rating of an item in O(log n).
+     *
+     * @param item   item to update
+     * @param rating new rating of the item
+     * @return true if the rating was changed, or false if the sampler does not hold the item
+     */
+    public boolean updateRating(T item, Integer rating) {
+        Integer slot = slots.get(item);
+        if (slot == null) {
+            return false;
+        }
+
+        fenwickTree.update(slot, RatingWeights.weightOf(rating, ratingCurve));
+        return true;
+    }
+
+    /**
+     * @param item item to look for
+     * @return true if the sampler holds the item
+     */
+    public boolean contains(T item) {
+        return slots.containsKey(item);
+    }
+
+    /**
+     * @return number of items held by the sampler
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * Draws a single item in O(log n), where the chance of an item being drawn is its weight
+     * divided by the sum of the weights of all items.  The item is not removed.
+     *
+     * @return the drawn item, or null if the sampler is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T draw() {
+        int slot = fenwickTree.sample(randomSource.split().nextDouble());
+        return slot >= 0 ? (T) items[slot] : null;
+    }
+
+    /**
+     * Draws up to maxResults distinct items in weighted random order in O(maxResults log n), where
+     * the chance of an item being drawn next is its weight divided by the sum of the weights of the
+     * items not yet drawn.  No items are removed.
+     *
+     * @param maxResults the maximum size of the return List (must be greater than zero)
+     * @return new List object containing the drawn items in the order they were drawn
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> draw(Integer maxResults) {
+        if (maxResults == null || maxResults.intValue() <= 0) {
+            throw new IllegalArgumentException("maxResults must be greater than zero when sampling");
+        }
+        RandomSource random = randomSource.split();
+        List<T> returnList = new ArrayList<T>(Math.min(maxResults, slots.size()));
+
+        // the drawn items are removed from the tree for the rest of this draw only
+        fenwickTree.mark();
+        try {
+            while (fenwickTree.size() > 0 && returnList.size() < maxResults) {
+                int slot = fenwickTree.sample(random.nextDouble());
+                fenwickTree.update(slot, 0);
+                returnList.add((T) items[slot]);
+            }
+        } finally {
+            fenwickTree.rollback();
+        }
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("draw({}) returned {} of {} items", maxResults, returnList.size(), slots.size());
+        }
+        return returnList;
+    }
+}
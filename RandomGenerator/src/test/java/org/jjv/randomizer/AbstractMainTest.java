@@ -0,0 +1,385 @@
+package org.jjv.randomizer;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CLI cases shared by MainTest, which calls Main.main() within the test JVM, and MainNativeIT,
+ * which runs the native executable built by the native profile.
+ */
+public abstract class AbstractMainTest {
+
+    protected String currentVersion;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Before
+    public void readVersion() throws IOException {
+        currentVersion = Main.readVersion();
+    }
+
+    /**
+     * @param args command-line arguments, or null to run without any
+     * @return everything the CLI wrote to standard output
+     * @throws Exception if the CLI cannot be run
+     */
+    protected abstract String runMain(String[] args) throws Exception;
+
+    @Test
+    public void testWithoutAnyArgs() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + getHelpText();
+
+        String[] args = null;
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void testWithDefaultDelimiter() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with default delimiter (~~~)\n"
+                + "String to randomize:\n"
+                + "One~~~Two~~~Three~~~Four~~~Five~~~\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result.substring(0, expectedResult.length()));
+    }
+
+    @Test
+    public void testWithAlternateDelimiter() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with custom delimiter (^^^)\n"
+                + "String to randomize:\n"
+                + "One^^^Two^^^Three^^^Four^^^Five^^^\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One^^^Two^^^Three^^^Four^^^Five^^^", "-delimiter", "^^^" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result.substring(0, expectedResult.length()));
+    }
+
+    @Test
+    public void testWithAlternateDelimiterAndReturnSize() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with custom delimiter (^^^), returning only 3 elements\n"
+                + "String to randomize:\n"
+                + "One^^^Two^^^Three^^^Four^^^Five^^^\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One^^^Two^^^Three^^^Four^^^Five^^^", "-delimiter", "^^^", "-returnSize", "3" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result.substring(0, expectedResult.length()));
+    }
+
+    @Test
+    public void testWithReturnSizeAndAlternateDelimiter() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with custom delimiter (^^^), returning only 3 elements\n"
+                + "String to randomize:\n"
+                + "One^^^Two^^^Three^^^Four^^^Five^^^\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One^^^Two^^^Three^^^Four^^^Five^^^", "-returnSize", "3", "-delimiter", "^^^" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result.substring(0, expectedResult.length()));
+    }
+
+    @Test
+    public void testWithReturnSize() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with default delimiter (~~~), returning only 3 elements\n"
+                + "String to randomize:\n"
+                + "One~~~Two~~~Three~~~Four~~~Five~~~\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-returnSize", "3" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result.substring(0, expectedResult.length()));
+    }
+
+    @Test
+    public void testWithSeed() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with default delimiter (~~~), returning only 3 elements, using seed 42\n"
+                + "String to randomize:\n"
+                + "One~~~Two~~~Three~~~Four~~~Five~~~\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-returnSize", "3", "-seed", "42" };
+        String firstResult = runMain(args);
+        String secondResult = runMain(args);
+
+        assertEquals(expectedResult, firstResult.substring(0, expectedResult.length()));
+        assertEquals("The same seed should return the same result", firstResult, secondResult);
+    }
+
+    @Test
+    public void testWithBackslashDelimiter() throws Exception {
+        // escape sequences are only replaced for -file and -batch, so a listString delimiter is used as given
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "Randomizing string with custom delimiter (\\t), using seed 42\n"
+                + "String to randomize:\n"
+                + "One\\tTwo\\tThree\\t\n"
+                + "Randomized string:\n";
+
+        String[] args = { "One\\tTwo\\tThree\\t", "-delimiter", "\\t", "-seed", "42" };
+        String result = runMain(args);
+
+        RandomGenerator<String> randomGenerator = RandomGenerator.<String>builder().seed(42L).build();
+        assertEquals(expectedResult + randomGenerator.randomize("One\\tTwo\\tThree\\t", "\\t") + "\n", result);
+        assertEquals(3, result.substring(expectedResult.length()).trim().split("\\\\t").length);
+    }
+
+    @Test
+    public void testWithInvalidArg() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "An unexpected error occurred.\n"
+                + "\n"
+                + "An error has occurred: arg -invalidArg is not a valid option\n"
+                + "\n"
+                + getHelpText();
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-invalidArg", "hello" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void testWithOneValidAndOneInvalidArg() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "An unexpected error occurred.\n"
+                + "\n"
+                + "An error has occurred: arg -invalidArg is not a valid option\n"
+                + "\n"
+                + getHelpText();
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-returnSize", "3", "-invalidArg", "hello" };
+        String result = runMain(args);
+
+        assertEquals(expectedResult, result);
+    }
+
+    @Test
+    public void testWithFile() throws Exception {
+        Path input = temporaryFolder.newFile("lines.txt").toPath();
+        Path output = temporaryFolder.getRoot().toPath().resolve("shuffled.txt");
+        Files.write(input, "One\nTwo\nThree\nFour\nFive".getBytes(StandardCharsets.UTF_8));
+
+        String[] args = { "-file", input.toString(), "-delimiter", "\\n", "-out", output.toString() };
+        assertEquals("Only the randomized records should be written", "", runMain(args));
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(5, lines.size());
+        assertEquals(new HashSet<String>(Arrays.asList("One", "Two", "Three", "Four", "Five")), new HashSet<String>(lines));
+    }
+
+    @Test
+    public void testWithFileToStandardOutput() throws Exception {
+        Path input = temporaryFolder.newFile("list.txt").toPath();
+        Files.write(input, "One~~~Two~~~Three~~~Four~~~Five~~~".getBytes(StandardCharsets.UTF_8));
+
+        String[] args = { "-file", input.toString(), "-returnSize", "3", "-seed", "42" };
+        String firstResult = runMain(args);
+        String secondResult = runMain(args);
+
+        assertEquals(3, firstResult.split("~~~").length);
+        assertTrue(firstResult.endsWith("~~~"));
+        assertEquals("The same seed should return the same result", firstResult, secondResult);
+    }
+
+    @Test
+    public void testWithFileAndListString() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "An unexpected error occurred.\n"
+                + "\n"
+                + "An error has occurred: either listString or -file must be provided\n"
+                + "\n"
+                + getHelpText();
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-file", "lines.txt", "-returnSize", "3" };
+        assertEquals(expectedResult, runMain(args));
+    }
+
+    @Test
+    public void testWithFileAndMemory() throws Exception {
+        Path input = temporaryFolder.newFile("lines.txt").toPath();
+        Path output = temporaryFolder.getRoot().toPath().resolve("shuffled.txt");
+        Files.write(input, "One\nTwo\nThree\nTwo\nFour\nFive\nOne\n".getBytes(StandardCharsets.UTF_8));
+
+        String[] args = { "-file", input.toString(), "-delimiter", "\\n", "-memory", "64k", "-out", output.toString() };
+        assertEquals("", runMain(args));
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals("Duplicate records should be written once, as without -memory", 5, lines.size());
+        assertEquals(new HashSet<String>(Arrays.asList("One", "Two", "Three", "Four", "Five")), new HashSet<String>(lines));
+    }
+
+    @Test
+    public void testWithBatch() throws Exception {
+        Path input = temporaryFolder.newFile("lists.txt").toPath();
+        Path output = temporaryFolder.getRoot().toPath().resolve("samples.txt");
+        StringBuilder lists = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            lists.append(i).append(",a,b,c,d\n");
+        }
+        Files.write(input, lists.toString().getBytes(StandardCharsets.UTF_8));
+
+        String[] args = { "-batch", input.toString(), "-delimiter", ",", "-returnSize", "2", "-seed", "42", "-out", output.toString() };
+        assertEquals("Only the randomized lines should be written", "", runMain(args));
+
+        List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        assertEquals(3000, lines.size());
+        for (String line : lines) {
+            assertEquals(2, line.split(",").length);
+        }
+
+        String[] parallelArgs = { "-batch", input.toString(), "-delimiter", ",", "-returnSize", "2", "-seed", "42", "-threads", "4" };
+        assertEquals("The same seed should return the same lines on any number of threads",
+                String.join("\n", lines) + "\n", runMain(parallelArgs));
+    }
+
+    @Test
+    public void testWithBatchAndListString() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "An unexpected error occurred.\n"
+                + "\n"
+                + "An error has occurred: -batch cannot be combined with listString or -file\n"
+                + "\n"
+                + getHelpText();
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-batch", "lists.txt" };
+        assertEquals(expectedResult, runMain(args));
+    }
+
+    @Test
+    public void testWithServeAndListString() throws Exception {
+        String expectedResult = "\n"
+                + "RandomGenerator version " + currentVersion + "\n"
+                + "\n"
+                + "An unexpected error occurred.\n"
+                + "\n"
+                + "An error has occurred: -serve cannot be combined with listString or other options\n"
+                + "\n"
+                + getHelpText();
+
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-serve", "0" };
+        assertEquals(expectedResult, runMain(args));
+    }
+
+    static String getHelpText() {
+        return "Usage: java -jar random-generator-version listString [options]\n"
+                + "       java -jar random-generator-version -file path [options]\n"
+                + "       java -jar random-generator-version -batch path [options]\n"
+                + "       java -jar random-generator-version -serve port\n"
+                + "\n"
+                + "  where:\n"
+                + "    listString = a concatenated list using either the default delimiter (~~~)\n"
+                + "                 or the value of the delimiterString provided.\n"
+                + "\n"
+                + "  options:\n"
+                + "    -delimiter = the custom delimiter to use (with -file and -batch, \\n, \\r and \\t can be used for line breaks and tabs).\n"
+                + "\n"
+                + "    -returnSize = the number of elements to return.\n"
+                + "\n"
+                + "    -seed = the seed to use, so the same randomization can be repeated.\n"
+                + "\n"
+                + "    -file = the file whose delimited records are randomized instead of listString (- reads standard input).\n"
+                + "            Like listString, duplicate records are written once, and only the randomized records are written.\n"
+                + "            Needs up to 27 bytes of heap per record; files with more records than fit in the heap need -memory.\n"
+                + "\n"
+                + "    -out = the file to write the randomized -file records to (defaults to standard output).\n"
+                + "\n"
+                + "    -memory = shuffles the -file records through temporary files, using at most this much memory (such as 512m).\n"
+                + "              Used for files that are too large to memory-map.\n"
+                + "\n"
+                + "    -serve = runs a randomizer server on this loopback port (0 for any free port) until it is stopped.\n"
+                + "             Requests are tab-separated lines of randomize, listString, delimiter, returnSize and seed.\n"
+                + "\n"
+                + "    -connect = sends listString to the randomizer server on this loopback port, writing only the randomized string.\n"
+                + "\n"
+                + "    -batch = the file whose lines are each randomized as a separate listString (- reads standard input).\n"
+                + "             One randomized line is written per input line, in the same order.\n"
+                + "\n"
+                + "    -threads = the number of threads to randomize the -batch lines on (defaults to 1).\n"
+                + "\n"
+                + "    -debug = writes debug logging. This option does not take a value.\n"
+                + "\n"
+                + "  examples:\n"
+                + "    java -jar random-generator-version One~~~Two~~~Three~~Four~~~Five~~~\n"
+                + "      Randomizes a list of five elements using the default delimiter (~~~)\n"
+                + "\n"
+                + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^\n"
+                + "      Randomizes a list of five elements using a custom delimiter (^^)\n"
+                + "\n"
+                + "    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -returnSize 3\n"
+                + "      Randomizes a list of five elements using the default delimiter (~~~), returning only three elements\n"
+                + "\n"
+                + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^ -returnSize 3\n"
+                + "      Randomizes a list of five elements using a custom delimiter (^^), returning only three elements\n"
+                + "\n"
+                + "    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -seed 42\n"
+                + "      Randomizes a list of five elements using the default delimiter (~~~), returning the same order every time seed 42 is used\n"
+                + "\n"
+                + "    java -jar random-generator-version -file lines.txt -delimiter \\n -out shuffled.txt\n"
+                + "      Randomizes the lines of lines.txt, writing them to shuffled.txt\n"
+                + "\n"
+                + "    java -jar random-generator-version -file - -delimiter \\n -memory 512m\n"
+                + "      Randomizes the lines read from standard input, using temporary files and at most 512 MB of memory\n"
+                + "\n"
+                + "    java -jar random-generator-version -serve 7070\n"
+                + "      Runs a randomizer server on port 7070, so that later calls do not pay for JVM startup\n"
+                + "\n"
+                + "    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -connect 7070\n"
+                + "      Randomizes a list of five elements using the randomizer server on port 7070\n"
+                + "\n"
+                + "    java -jar random-generator-version -batch lists.txt -delimiter , -returnSize 3 -threads 4 -out samples.txt\n"
+                + "      Randomizes every comma-separated line of lists.txt on four threads, writing three elements per line to samples.txt\n"
+                + "\n";
+    }
+}
@@ -0,0 +1,72 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchLineRandomizerTest {
+
+    final static Logger logger = LogManager.getLogger(BatchLineRandomizerTest.class);
+
+    @Test
+    public void everyLineRandomizedTest() throws Exception {
+        logger.debug("begin everyLineRandomizedTest()");
+        // empty lines are kept, so the output lines match the input lines
+        String input = "One~~~Two~~~Three~~~\n\nFour~~~Five~~~\r\nSix~~~";
+
+        StringWriter writer = new StringWriter();
+        long lines = BatchLineRandomizer.randomize(new BufferedReader(new StringReader(input)), writer, "~~~", 0,
+                RandomSource.threadLocal(), 1);
+
+        String[] output = writer.toString().split("\n", -1);
+        assertEquals(4, lines);
+        assertEquals(5, output.length);
+        assertEquals(new HashSet<String>(Arrays.asList("One", "Two", "Three")), new HashSet<String>(Arrays.asList(output[0].split("~~~"))));
+        assertEquals("", output[1]);
+        assertEquals(new HashSet<String>(Arrays.asList("Four", "Five")), new HashSet<String>(Arrays.asList(output[2].split("~~~"))));
+        assertEquals("Six~~~", output[3]);
+        assertEquals("", output[4]);
+        logger.debug("end everyLineRandomizedTest()");
+    }
+
+    @Test
+    public void stableOrderTest() throws Exception {
+        logger.debug("begin stableOrderTest()");
+        // enough lines for several chunks, so that chunks complete out of order on the worker threads
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < BatchLineRandomizer.CHUNK_LINES * 10 + 7; i++) {
+            input.append(i).append(",a,b,c,d,e,f,g\n");
+        }
+
+        String sequential = randomize(input.toString(), 1);
+        String parallel = randomize(input.toString(), 8);
+
+        assertEquals(sequential, parallel);
+        String[] lines = parallel.split("\n");
+        assertEquals(BatchLineRandomizer.CHUNK_LINES * 10 + 7, lines.length);
+        for (String line : lines) {
+            assertEquals(3, new HashSet<String>(Arrays.asList(line.split(","))).size());
+        }
+        logger.debug("end stableOrderTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreadsTest() throws Exception {
+        BatchLineRandomizer.randomize(new BufferedReader(new StringReader("One~~~")), new StringWriter(), "~~~", 0,
+                RandomSource.threadLocal(), 0);
+    }
+
+    private static String randomize(String input, int threads) throws Exception {
+        StringWriter writer = new StringWriter();
+        BatchLineRandomizer.randomize(new BufferedReader(new StringReader(input)), writer, ",", 3, RandomSource.seeded(42L), threads);
+        return writer.toString();
+    }
+}
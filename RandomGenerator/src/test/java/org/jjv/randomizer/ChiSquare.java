@@ -0,0 +1,65 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * <p>Chi-square goodness of fit assertions shared by the statistical tests, at a significance
+ * level of 0.001.</p>
+ */
+final class ChiSquare {
+
+    final static Logger logger = LogManager.getLogger(ChiSquare.class);
+
+    // critical values for p = 0.001, indexed by degrees of freedom
+    private static final double[] CRITICAL = { 0, 10.828, 13.816, 16.266, 18.467, 20.515, 22.458, 24.322, 26.124,
+            27.877, 29.588, 31.264, 32.909, 34.528, 36.123, 37.697, 39.252, 40.790, 42.312, 43.820, 45.315, 46.797,
+            48.268, 49.728, 51.179, 52.620, 54.052, 55.476, 56.892, 58.301, 59.703, 61.098, 62.487, 63.870, 65.247,
+            66.619, 67.985, 69.346, 70.703, 72.055, 73.402, 74.745, 76.084, 77.419, 78.750, 80.077, 81.400, 82.720,
+            84.037, 85.351, 86.661, 87.968, 89.272, 90.573, 91.872, 93.168, 94.461, 95.751, 97.039, 98.324, 99.607,
+            100.888, 102.166, 103.442 };
+
+    private ChiSquare() {
+    }
+
+    /**
+     * <p>Asserts that observed counts match the expected counts, with one degree of freedom less
+     * than the number of categories.</p>
+     */
+    static void assertBelowCritical(int[] observed, double[] expected) {
+        double statistic = 0;
+        for (int i = 0; i < expected.length; i++) {
+            double difference = observed[i] - expected[i];
+            statistic += difference * difference / expected[i];
+        }
+
+        assertBelowCritical(statistic, expected.length - 1);
+    }
+
+    /**
+     * <p>Asserts that observed counts match the same expected count in every category.</p>
+     */
+    static void assertBelowCritical(int[] observed, double expected) {
+        double[] expectedCounts = new double[observed.length];
+        Arrays.fill(expectedCounts, expected);
+        assertBelowCritical(observed, expectedCounts);
+    }
+
+    /**
+     * <p>Asserts that an already computed statistic stays below the critical value, for tests such
+     * as homogeneity tests that do not compare against fixed expected counts.</p>
+     */
+    static void assertBelowCritical(double statistic, int degreesOfFreedom) {
+        if (degreesOfFreedom < 1 || degreesOfFreedom >= CRITICAL.length) {
+            throw new IllegalArgumentException("No critical value for " + degreesOfFreedom + " degrees of freedom");
+        }
+
+        logger.debug("chi-square statistic = {} with {} degrees of freedom", statistic, degreesOfFreedom);
+        assertTrue("Observed counts differ from the expected counts (chi-square = " + statistic + " with "
+                + degreesOfFreedom + " degrees of freedom)", statistic < CRITICAL[degreesOfFreedom]);
+    }
+}
@@ -0,0 +1,93 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DelimitedTokensTest {
+
+    final static Logger logger = LogManager.getLogger(DelimitedTokensTest.class);
+
+    @Test
+    public void trailingTokenTest() {
+        logger.debug("begin trailingTokenTest()");
+        DelimitedTokens tokens = DelimitedTokens.tokenize("ONE~~~TWO~~~THREE", "~~~");
+
+        assertEquals(3, tokens.size());
+        assertEquals(Arrays.asList("ONE", "TWO", "THREE"), tokensOf(tokens));
+        logger.debug("end trailingTokenTest()");
+    }
+
+    @Test
+    public void emptyTokensSkippedTest() {
+        logger.debug("begin emptyTokensSkippedTest()");
+        DelimitedTokens tokens = DelimitedTokens.tokenize("~~~ONE~~~~~~TWO~~~~", "~~~");
+
+        assertEquals(Arrays.asList("ONE", "TWO", "~"), tokensOf(tokens));
+        assertEquals(0, DelimitedTokens.tokenize("", "~~~").size());
+        assertEquals(0, DelimitedTokens.tokenize("~~~~~~", "~~~").size());
+        logger.debug("end emptyTokensSkippedTest()");
+    }
+
+    @Test
+    public void duplicateGroupsTest() {
+        logger.debug("begin duplicateGroupsTest()");
+        // "Aa" and "BB" have the same String hash code but are different tokens
+        DelimitedTokens tokens = DelimitedTokens.tokenize("Aa,BB,Aa,C,BB,Aa", ",");
+
+        assertEquals(6, tokens.size());
+        assertEquals(3, tokens.groupCount());
+
+        int[] drawn = tokens.draw(0, RandomSource.seeded(1L));
+        assertEquals(3, drawn.length);
+        assertEquals(new HashSet<String>(Arrays.asList("Aa", "BB", "C")), new HashSet<String>(tokensOf(tokens, drawn)));
+        // the draw stops as soon as every group has been drawn
+        assertTrue(tokens.draws() >= 3 && tokens.draws() <= 6);
+        logger.debug("end duplicateGroupsTest()");
+    }
+
+    @Test
+    public void maxResultsTest() {
+        logger.debug("begin maxResultsTest()");
+        DelimitedTokens tokens = DelimitedTokens.tokenize("A,B,C,D,E,F,G,H", ",");
+
+        int[] drawn = tokens.draw(3, RandomSource.threadLocal());
+
+        assertEquals(3, drawn.length);
+        assertNotEquals(drawn[0], drawn[1]);
+        assertEquals(6, tokens.length(drawn));
+        logger.debug("end maxResultsTest()");
+    }
+
+    private static List<String> tokensOf(DelimitedTokens tokens) {
+        int[] all = new int[tokens.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return tokensOf(tokens, all);
+    }
+
+    private static List<String> tokensOf(DelimitedTokens tokens, int[] drawn) {
+        List<String> tokenList = new ArrayList<String>();
+        for (int token : drawn) {
+            StringBuilder sb = new StringBuilder();
+            try {
+                tokens.appendTo(sb, token);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            tokenList.add(sb.toString());
+        }
+        return tokenList;
+    }
+}
@@ -0,0 +1,185 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ExternalShufflerTest {
+
+    final static Logger logger = LogManager.getLogger(ExternalShufflerTest.class);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void allRecordsWrittenTest() throws Exception {
+        logger.debug("begin allRecordsWrittenTest()");
+        // a small budget forces many buckets, and buckets that are shuffled recursively
+        List<String> records = generateRecords(20000);
+        Path input = temporaryFolder.newFile().toPath();
+        Files.write(input, join(records, "\n").getBytes(StandardCharsets.UTF_8));
+        ExternalShuffler externalShuffler = ExternalShuffler.builder().memoryBudget(16 << 10).delimiter("\n")
+                .tempDirectory(temporaryFolder.getRoot().toPath()).build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = externalShuffler.shuffle(input, out);
+
+        List<String> resultList = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+        assertEquals(20000, written);
+        assertEquals(sorted(records), sorted(resultList));
+        assertTrue("Records should be in a different order", !records.equals(resultList));
+        assertEquals("Temporary files should be deleted", 1, temporaryFolder.getRoot().list().length);
+        logger.debug("end allRecordsWrittenTest()");
+    }
+
+    @Test
+    public void streamWithDuplicatesTest() throws Exception {
+        logger.debug("begin streamWithDuplicatesTest()");
+        // like the String randomize methods, every distinct record is written once
+        String input = "ONE~~~TWO~~~~~~TWO~~~THREE";
+        ExternalShuffler externalShuffler = ExternalShuffler.builder().tempDirectory(temporaryFolder.getRoot().toPath()).build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = externalShuffler.shuffle(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), out);
+
+        String result = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertEquals(3, written);
+        assertEquals(sorted(Arrays.asList("ONE", "TWO", "THREE")), sorted(Arrays.asList(result.split("~~~"))));
+        assertTrue(result.endsWith("~~~"));
+        logger.debug("end streamWithDuplicatesTest()");
+    }
+
+    @Test
+    public void seededMaxResultsTest() throws Exception {
+        logger.debug("begin seededMaxResultsTest()");
+        byte[] input = join(generateRecords(1000), "\n").getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream firstOut = new ByteArrayOutputStream();
+        ByteArrayOutputStream secondOut = new ByteArrayOutputStream();
+        ExternalShuffler.builder().delimiter("\n").bucketCount(8).seed(42L).build()
+                .shuffle(new ByteArrayInputStream(input), firstOut, 10);
+        ExternalShuffler.builder().delimiter("\n").bucketCount(8).seed(42L).build()
+                .shuffle(new ByteArrayInputStream(input), secondOut, 10);
+
+        assertEquals(10, new String(firstOut.toByteArray(), StandardCharsets.UTF_8).split("\n").length);
+        assertTrue(Arrays.equals(firstOut.toByteArray(), secondOut.toByteArray()));
+        logger.debug("end seededMaxResultsTest()");
+    }
+
+    @Test
+    public void uniformPositionTest() throws Exception {
+        logger.debug("begin uniformPositionTest()");
+        int recordCount = 10;
+        int trials = 5000;
+        byte[] input = join(generateRecords(recordCount), "\n").getBytes(StandardCharsets.UTF_8);
+        ExternalShuffler externalShuffler = ExternalShuffler.builder().bucketCount(4).delimiter("\n").seed(20170808L)
+                .tempDirectory(temporaryFolder.getRoot().toPath()).build();
+
+        // every record should be written first equally often
+        int[] first = new int[recordCount];
+        for (int i = 0; i < trials; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            externalShuffler.shuffle(new ByteArrayInputStream(input), out, 1);
+            first[Integer.parseInt(new String(out.toByteArray(), StandardCharsets.UTF_8).trim().substring("RECORD-".length()))]++;
+        }
+
+        ChiSquare.assertBelowCritical(first, (double) trials / recordCount);
+        logger.debug("end uniformPositionTest()");
+    }
+
+    @Test
+    public void tinyBudgetTest() throws Exception {
+        logger.debug("begin tinyBudgetTest()");
+        long memoryBudget = 8 << 10;
+        ExternalShuffler externalShuffler = ExternalShuffler.builder().memoryBudget(memoryBudget).bucketCount(512).delimiter("\n")
+                .tempDirectory(temporaryFolder.getRoot().toPath()).build();
+
+        // the bucket write buffers take at most half of the budget, and the read buffers of the input
+        // and of four levels of recursion at most a quarter
+        int bucketCount = externalShuffler.maxBucketCount();
+        assertTrue(bucketCount < 512);
+        assertTrue((long) bucketCount * externalShuffler.bucketBufferSize(bucketCount) <= memoryBudget / 2);
+        assertTrue(5L * externalShuffler.readBufferSize() <= memoryBudget / 4);
+
+        List<String> records = generateRecords(5000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = externalShuffler.shuffle(new ByteArrayInputStream(join(records, "\n").getBytes(StandardCharsets.UTF_8)), out);
+
+        assertEquals(5000, written);
+        assertEquals(sorted(records), sorted(Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n"))));
+        logger.debug("end tinyBudgetTest()");
+    }
+
+    @Test
+    public void duplicatesWrittenOnceTest() throws Exception {
+        logger.debug("begin duplicatesWrittenOnceTest()");
+        // a small budget forces partitions that are partitioned again, and one record is repeated far more often than
+        // the records of a partition fit in memory
+        List<String> records = generateRecords(5000);
+        List<String> input = new ArrayList<String>(records);
+        input.addAll(records);
+        for (int i = 0; i < 20000; i++) {
+            input.add("RECORD-42");
+        }
+        // the hashes of "Aa" and "BB" collide in String.hashCode()
+        input.addAll(Arrays.asList("Aa", "BB", "Aa"));
+        Collections.shuffle(input, new Random(42L));
+        Path file = temporaryFolder.newFile().toPath();
+        Files.write(file, join(input, "\n").getBytes(StandardCharsets.UTF_8));
+        ExternalShuffler externalShuffler = ExternalShuffler.builder().memoryBudget(16 << 10).delimiter("\n")
+                .tempDirectory(temporaryFolder.getRoot().toPath()).build();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = externalShuffler.shuffle(file, out);
+
+        List<String> expected = new ArrayList<String>(records);
+        expected.addAll(Arrays.asList("Aa", "BB"));
+        assertEquals(5002, written);
+        assertEquals(sorted(expected), sorted(Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n"))));
+        assertEquals("Temporary files should be deleted", 1, temporaryFolder.getRoot().list().length);
+        logger.debug("end duplicatesWrittenOnceTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyDelimiterTest() {
+        ExternalShuffler.builder().delimiter("").build();
+    }
+
+    private static List<String> generateRecords(int count) {
+        List<String> records = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            records.add("RECORD-" + i);
+        }
+        return records;
+    }
+
+    private static String join(List<String> records, String delimiter) {
+        StringBuilder sb = new StringBuilder();
+        for (String record : records) {
+            sb.append(record).append(delimiter);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> sorted(List<String> records) {
+        List<String> sortedRecords = new ArrayList<String>(records);
+        Collections.sort(sortedRecords);
+        return sortedRecords;
+    }
+}
@@ -0,0 +1,109 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JmxMetricsSinkTest {
+
+    final static Logger logger = LogManager.getLogger(JmxMetricsSinkTest.class);
+
+    @Test
+    public void recordTest() {
+        logger.debug("begin recordTest()");
+        List<String> testList = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            testList.add("ITEM-" + i % 40);
+        }
+        JmxMetricsSink metricsSink = new JmxMetricsSink();
+        RandomGenerator<String> randomGenerator = RandomGenerator.<String>builder().metricsSink(metricsSink).build();
+
+        List<String> resultList = randomGenerator.randomize(testList);
+
+        assertEquals(40, resultList.size());
+        assertEquals(1, metricsSink.getCalls());
+        assertEquals(100, metricsSink.getInputSize());
+        assertEquals(100, metricsSink.getExpandedSize());
+        assertEquals(60, metricsSink.getDuplicatesRemoved());
+        assertEquals(40, metricsSink.getItemsReturned());
+        assertEquals(1, sum(metricsSink.getLatencyHistogram()));
+        logger.debug("end recordTest()");
+    }
+
+    @Test
+    public void expandedSizeTest() {
+        logger.debug("begin expandedSizeTest()");
+        List<Destination> testList = new ArrayList<Destination>();
+        for (int rating = 1; rating <= 5; rating++) {
+            testList.add(new Destination("DESTINATION-" + rating, rating));
+        }
+        JmxMetricsSink metricsSink = new JmxMetricsSink();
+        RandomGenerator<Destination> randomGenerator = RandomGenerator.<Destination>builder().metricsSink(metricsSink).build();
+
+        randomGenerator.randomize(testList, 2, true);
+
+        // rating weights 1, 2, 4, 8 and 16
+        assertEquals(31, metricsSink.getExpandedSize());
+        assertEquals(2, metricsSink.getItemsReturned());
+        assertEquals(0, metricsSink.getDuplicatesRemoved());
+
+        metricsSink.reset();
+        assertEquals(0, metricsSink.getCalls());
+        assertEquals(0, metricsSink.getExpandedSize());
+        logger.debug("end expandedSizeTest()");
+    }
+
+    @Test
+    public void registerTest() throws Exception {
+        logger.debug("begin registerTest()");
+        ObjectName objectName = new ObjectName("org.jjv.randomizer:type=RandomGenerator,name=registerTest");
+        JmxMetricsSink metricsSink = new JmxMetricsSink().register(objectName);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+        try {
+            metricsSink.record(5000L, 10, 10, 2, 8);
+            assertEquals(1L, mBeanServer.getAttribute(objectName, "Calls"));
+            assertEquals(8L, mBeanServer.getAttribute(objectName, "ItemsReturned"));
+        } finally {
+            mBeanServer.unregisterMBean(objectName);
+        }
+        logger.debug("end registerTest()");
+    }
+
+    @Test
+    public void noopTest() {
+        assertFalse(MetricsSink.noop().isEnabled());
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private static class Destination {
+        private final String name;
+        private final Integer rating;
+
+        Destination(String name, Integer rating) {
+            this.name = name;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
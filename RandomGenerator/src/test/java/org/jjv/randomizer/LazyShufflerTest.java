@@ -0,0 +1,102 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class LazyShufflerTest {
+
+    final static Logger logger = LogManager.getLogger(LazyShufflerTest.class);
+    private static final int TRIALS = 64000;
+
+    @Test
+    public void uniformTest() {
+        logger.debug("begin uniformTest()");
+        List<String> candidates = new ArrayList<String>();
+        for (int i = 0; i < 100; i++) {
+            candidates.add("ITEM-" + i % 80);
+        }
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20171001L));
+
+        assertDistinct(LazyShuffler.uniform(candidates, Object::toString, random), 80);
+        assertDistinct(LazyShuffler.uniform(new LinkedList<String>(candidates), Object::toString, random), 80);
+        logger.debug("end uniformTest()");
+    }
+
+    @Test
+    public void weightedTest() {
+        logger.debug("begin weightedTest()");
+        List<String> candidates = new ArrayList<String>();
+        double[] weights = new double[100];
+        for (int i = 0; i < 100; i++) {
+            candidates.add("ITEM-" + i % 80);
+            weights[i] = i < 90 ? i % 5 + 1 : 0;
+        }
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20171002L));
+
+        // items with a weight of zero are never drawn
+        assertDistinct(LazyShuffler.weighted(candidates, weights, Object::toString, random), 80);
+        logger.debug("end weightedTest()");
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void exhaustedTest() {
+        List<String> candidates = new ArrayList<String>();
+        candidates.add("ONE");
+        Iterator<String> iterator = LazyShuffler.uniform(candidates, Object::toString, RandomSource.threadLocal());
+
+        iterator.next();
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    @Test
+    public void sparseAndDenseDistributionTest() {
+        logger.debug("begin sparseAndDenseDistributionTest()");
+        List<Integer> candidates = new ArrayList<Integer>();
+        for (int i = 0; i < 64; i++) {
+            candidates.add(i);
+        }
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20171003L));
+
+        // the first pick is drawn from the sparse positions, the sixth after the switch to an array
+        int[] firstPicks = new int[candidates.size()];
+        int[] sixthPicks = new int[candidates.size()];
+        for (int i = 0; i < TRIALS; i++) {
+            Iterator<Integer> iterator = LazyShuffler.uniform(candidates, Object::toString, random);
+            firstPicks[iterator.next()]++;
+            for (int j = 0; j < 4; j++) {
+                iterator.next();
+            }
+            sixthPicks[iterator.next()]++;
+        }
+
+        assertUniform(firstPicks);
+        assertUniform(sixthPicks);
+        logger.debug("end sparseAndDenseDistributionTest()");
+    }
+
+    private static void assertDistinct(Iterator<String> iterator, int expectedSize) {
+        List<String> results = new ArrayList<String>();
+        while (iterator.hasNext()) {
+            results.add(iterator.next());
+        }
+        assertEquals(expectedSize, results.size());
+        assertEquals(expectedSize, new HashSet<String>(results).size());
+    }
+
+    private static void assertUniform(int[] observed) {
+        ChiSquare.assertBelowCritical(observed, TRIALS / (double) observed.length);
+    }
+}
@@ -0,0 +1,59 @@
+package org.jjv.randomizer;
+
+import org.junit.BeforeClass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Runs the MainTest cases against the native executable built by the native profile.  The path of
+ * the executable is given by the native.executable system property; the tests are skipped when it
+ * has not been built.
+ */
+public class MainNativeIT extends AbstractMainTest {
+
+    private static Path executable;
+
+    @BeforeClass
+    public static void findExecutable() {
+        executable = Paths.get(System.getProperty("native.executable", "target/random-generator"));
+        assumeTrue("native executable " + executable + " has not been built", Files.isExecutable(executable));
+    }
+
+    @Override
+    protected String runMain(String[] args) throws Exception {
+        List<String> command = new ArrayList<String>();
+        command.add(executable.toString());
+        if (args != null) {
+            command.addAll(Arrays.asList(args));
+        }
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        process.getOutputStream().close();
+        String output = readFully(process.getInputStream());
+        process.waitFor();
+        return output;
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream input = in) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
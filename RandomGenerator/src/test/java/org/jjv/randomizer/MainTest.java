@@ -1,296 +1,114 @@
 package org.jjv.randomizer;
 
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.config.Configurator;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.yaml.snakeyaml.Yaml;
 
 import java.io.ByteArrayOutputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.PrintStream;
-import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
-public class MainTest {
+public class MainTest extends AbstractMainTest {
     private final java.io.ByteArrayOutputStream outContent = new ByteArrayOutputStream();
     private final ByteArrayOutputStream errContent = new ByteArrayOutputStream();
-
-    private String currentVersion;
+    private String loggerContextFactory;
 
     @Before
     public void setUpStreams() {
         System.setOut(new PrintStream(outContent));
         System.setErr(new PrintStream(errContent));
-
-        InputStream is = null;
-        RandomGenerator randomGenerator = new RandomGenerator();
-
-        try {
-            ClassLoader classloader = Thread.currentThread().getContextClassLoader();
-            is = classloader.getResourceAsStream("properties.yml");
-
-            Yaml yaml = new Yaml();
-
-            Map<String, Object> result = (Map<String, Object>) yaml.load(is);
-
-            currentVersion = result.get("version").toString();
-
-        } catch (Exception e) {
-            System.out.println(e.getMessage());
-        } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (IOException ioe) {
-                    System.out.println(ioe.getMessage());
-                }
-            }
-        }
+        loggerContextFactory = System.getProperty(LogManager.FACTORY_PROPERTY_NAME);
     }
 
     @After
     public void cleanUpStreams() {
         System.setOut(null);
         System.setErr(null);
-    }
-
-    @Test
-    public void testWithoutAnyArgs() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "Usage: java -jar random-generator-version listString [options]\n"
-                    + "\n"
-                    + "  where:\n"
-                    + "    listString = a concatenated list using either the default delimiter (~~~)\n"
-                    + "                 or the value of the delimiterString provided.\n"
-                    + "\n"
-                    + "  options:\n"
-                    + "    -delimiter = the custom delimiter to use.\n"
-                    + "\n"
-                    + "    -returnSize = the number of elements to return.\n"
-                    + "\n"
-                    + "  examples:\n"
-                    + "    java -jar random-generator-version One~~~Two~~~Three~~Four~~~Five~~~\n"
-                    + "      Randomizes a list of five elements using the default delimiter (~~~)\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^\n"
-                    + "      Randomizes a list of five elements using a custom delimiter (^^)\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -returnSize 3\n"
-                    + "      Randomizes a list of five elements using the default delimiter (~~~), returning only three elements\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^ -returnSize 3\n"
-                    + "      Randomizes a list of five elements using a custom delimiter (^^), returning only three elements\n"
-                    + "\n";
-
-            String[] args = null;
-            Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result);
-        } catch (FileNotFoundException e) {
-            fail();
+        // Main sets the logger context factory for the CLI, which must not leak into the tests that follow
+        if (loggerContextFactory == null) {
+            System.clearProperty(LogManager.FACTORY_PROPERTY_NAME);
+        } else {
+            System.setProperty(LogManager.FACTORY_PROPERTY_NAME, loggerContextFactory);
         }
     }
 
-    @Test
-    public void testWithDefaultDelimiter() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "Randomizing string with default delimiter (~~~)\n"
-                    + "String to randomize:\n"
-                    + "One~~~Two~~~Three~~~Four~~~Five~~~\n"
-                    + "Randomized string:\n";
-
-            String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~" };
-            Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result.substring(0, 155));
-        } catch (FileNotFoundException e) {
-            fail();
-        }
+    @Override
+    protected String runMain(String[] args) throws Exception {
+        outContent.reset();
+        Main.main(args);
+        return outContent.toString();
     }
 
     @Test
-    public void testWithAlternateDelimiter() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "Randomizing string with custom delimiter (^^^)\n"
-                    + "String to randomize:\n"
-                    + "One^^^Two^^^Three^^^Four^^^Five^^^\n"
-                    + "Randomized string:\n";
+    public void testWithConnect() throws Exception {
+        try (RandomizerServer server = new RandomizerServer(0, currentVersion)) {
+            Thread serverThread = new Thread(() -> {
+                try {
+                    server.serve();
+                } catch (IOException e) {
+                    fail(e.getMessage());
+                }
+            });
+            serverThread.start();
 
-            String[] args = { "One^^^Two^^^Three^^^Four^^^Five^^^", "-delimiter", "^^^" };
+            String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-connect", Integer.toString(server.getPort()), "-seed", "42" };
             Main.main(args);
-            String result = outContent.toString();
 
-            assertEquals(expectedResult, result.substring(0, 154));
-        } catch (FileNotFoundException e) {
-            fail();
+            RandomGenerator<String> randomGenerator = RandomGenerator.<String>builder().seed(42L).build();
+            assertEquals(randomGenerator.randomize("One~~~Two~~~Three~~~Four~~~Five~~~", "~~~") + "\n", outContent.toString());
         }
     }
 
     @Test
-    public void testWithAlternateDelimiterAndReturnSize() {
+    public void testWithDebug() throws Exception {
+        String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-debug", "-seed", "42" };
         try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "Randomizing string with custom delimiter (^^^), returning only 3 elements\n"
-                    + "String to randomize:\n"
-                    + "One^^^Two^^^Three^^^Four^^^Five^^^\n"
-                    + "Randomized string:\n";
-
-            String[] args = { "One^^^Two^^^Three^^^Four^^^Five^^^", "-delimiter", "^^^", "-returnSize", "3" };
             Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result.substring(0, 181));
-        } catch (FileNotFoundException e) {
-            fail();
+        } finally {
+            if (LogManager.getContext(false) instanceof LoggerContext) {
+                Configurator.setRootLevel(Level.ERROR);
+            }
         }
+
+        RandomGenerator<String> randomGenerator = RandomGenerator.<String>builder().seed(42L).build();
+        assertTrue(outContent.toString().contains("Randomized string:\n"
+                + randomGenerator.randomize("One~~~Two~~~Three~~~Four~~~Five~~~", "~~~") + "\n"));
     }
 
     @Test
-    public void testWithReturnSizeAndAlternateDelimiter() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "Randomizing string with custom delimiter (^^^), returning only 3 elements\n"
-                    + "String to randomize:\n"
-                    + "One^^^Two^^^Three^^^Four^^^Five^^^\n"
-                    + "Randomized string:\n";
-
-            String[] args = { "One^^^Two^^^Three^^^Four^^^Five^^^", "-returnSize", "3", "-delimiter", "^^^" };
-            Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result.substring(0, 181));
-        } catch (FileNotFoundException e) {
-            fail();
-        }
+    public void testLoggerContextFactoryNotReplaced() throws Exception {
+        System.setProperty(LogManager.FACTORY_PROPERTY_NAME, "org.apache.logging.log4j.core.impl.Log4jContextFactory");
+        runMain(new String[] { "One~~~Two~~~Three~~~" });
+        assertEquals("org.apache.logging.log4j.core.impl.Log4jContextFactory", System.getProperty(LogManager.FACTORY_PROPERTY_NAME));
     }
 
     @Test
-    public void testWithReturnSize() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "Randomizing string with default delimiter (~~~), returning only 3 elements\n"
-                    + "String to randomize:\n"
-                    + "One~~~Two~~~Three~~~Four~~~Five~~~\n"
-                    + "Randomized string:\n";
-
-            String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-returnSize", "3" };
-            Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result.substring(0, 182));
-        } catch (FileNotFoundException e) {
-            fail();
-        }
+    public void testReadVersion() throws Exception {
+        // version.properties is filtered with the version of the pom
+        assertTrue(Main.readVersion().matches("\\d+(\\.\\d+)*(-SNAPSHOT)?"));
     }
 
     @Test
-    public void testWithInvalidArg() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "An unexpected error occurred.\n"
-                    + "\n"
-                    + "An error has occurred: arg -invalidArg is not a valid option\n"
-                    + "\n"
-                    + "Usage: java -jar random-generator-version listString [options]\n"
-                    + "\n"
-                    + "  where:\n"
-                    + "    listString = a concatenated list using either the default delimiter (~~~)\n"
-                    + "                 or the value of the delimiterString provided.\n"
-                    + "\n"
-                    + "  options:\n"
-                    + "    -delimiter = the custom delimiter to use.\n"
-                    + "\n"
-                    + "    -returnSize = the number of elements to return.\n"
-                    + "\n"
-                    + "  examples:\n"
-                    + "    java -jar random-generator-version One~~~Two~~~Three~~Four~~~Five~~~\n"
-                    + "      Randomizes a list of five elements using the default delimiter (~~~)\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^\n"
-                    + "      Randomizes a list of five elements using a custom delimiter (^^)\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -returnSize 3\n"
-                    + "      Randomizes a list of five elements using the default delimiter (~~~), returning only three elements\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^ -returnSize 3\n"
-                    + "      Randomizes a list of five elements using a custom delimiter (^^), returning only three elements\n"
-                    + "\n";
-
-            String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-invalidArg", "hello" };
-            Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result);
-        } catch (FileNotFoundException e) {
-            fail();
-        }
+    public void testParseSize() {
+        assertEquals(512L, Main.parseSize("512"));
+        assertEquals(64L << 10, Main.parseSize("64k"));
+        assertEquals(512L << 20, Main.parseSize("512M"));
+        assertEquals(4L << 30, Main.parseSize("4g"));
     }
 
     @Test
-    public void testWithOneValidAndOneInvalidArg() {
-        try {
-            String expectedResult = "\n"
-                    + "RandomGenerator version " + currentVersion + "\n"
-                    + "\n"
-                    + "An unexpected error occurred.\n"
-                    + "\n"
-                    + "An error has occurred: arg -invalidArg is not a valid option\n"
-                    + "\n"
-                    + "Usage: java -jar random-generator-version listString [options]\n"
-                    + "\n"
-                    + "  where:\n"
-                    + "    listString = a concatenated list using either the default delimiter (~~~)\n"
-                    + "                 or the value of the delimiterString provided.\n"
-                    + "\n"
-                    + "  options:\n"
-                    + "    -delimiter = the custom delimiter to use.\n"
-                    + "\n"
-                    + "    -returnSize = the number of elements to return.\n"
-                    + "\n"
-                    + "  examples:\n"
-                    + "    java -jar random-generator-version One~~~Two~~~Three~~Four~~~Five~~~\n"
-                    + "      Randomizes a list of five elements using the default delimiter (~~~)\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^\n"
-                    + "      Randomizes a list of five elements using a custom delimiter (^^)\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One~~~Two~~~Three~~~Four~~~Five~~~ -returnSize 3\n"
-                    + "      Randomizes a list of five elements using the default delimiter (~~~), returning only three elements\n"
-                    + "\n"
-                    + "    java -jar random-generator-version One^^Two^^Three^^Four^^Five^^ -delimiter ^^ -returnSize 3\n"
-                    + "      Randomizes a list of five elements using a custom delimiter (^^), returning only three elements\n"
-                    + "\n";
-
-            String[] args = { "One~~~Two~~~Three~~~Four~~~Five~~~", "-returnSize", "3", "-invalidArg", "hello" };
-            Main.main(args);
-            String result = outContent.toString();
-
-            assertEquals(expectedResult, result);
-        } catch (FileNotFoundException e) {
-            fail();
-        }
+    public void testUnescape() {
+        assertEquals("\n", Main.unescape("\\n"));
+        assertEquals("\r\n", Main.unescape("\\r\\n"));
+        assertEquals("a\tb\\", Main.unescape("a\\tb\\\\"));
+        assertEquals("^^\\", Main.unescape("^^\\"));
     }
 }
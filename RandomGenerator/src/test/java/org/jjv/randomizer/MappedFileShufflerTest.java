@@ -0,0 +1,138 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedFileShufflerTest {
+
+    final static Logger logger = LogManager.getLogger(MappedFileShufflerTest.class);
+    private static final byte[] DELIMITER = RandomGenerator.DEFAULT_DELIMITER.getBytes(StandardCharsets.UTF_8);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void allRecordsWrittenTest() throws Exception {
+        logger.debug("begin allRecordsWrittenTest()");
+        // the final record has no delimiter, empty records are skipped and duplicates are written once
+        Path input = write("~~~ONE~~~TWO~~~~~~THREE~~~TWO~~~FOUR");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = MappedFileShuffler.shuffle(input, DELIMITER, 0, RandomSource.threadLocal(), out);
+
+        List<String> records = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("~~~"));
+        assertEquals(4, written);
+        assertEquals(4, records.size());
+        assertEquals(new HashSet<String>(Arrays.asList("ONE", "TWO", "THREE", "FOUR")), new HashSet<String>(records));
+        logger.debug("end allRecordsWrittenTest()");
+    }
+
+    @Test
+    public void maxResultsTest() throws Exception {
+        logger.debug("begin maxResultsTest()");
+        Path input = write("ONE\nTWO\nTHREE\nFOUR\nFIVE\n");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = MappedFileShuffler.shuffle(input, "\n".getBytes(StandardCharsets.UTF_8), 2, RandomSource.seeded(42L), out);
+
+        assertEquals(2, written);
+        assertEquals(2, new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n").length);
+        logger.debug("end maxResultsTest()");
+    }
+
+    @Test
+    public void duplicatesWrittenOnceTest() throws Exception {
+        logger.debug("begin duplicatesWrittenOnceTest()");
+        // Aa and BB have the same hash, so they must be told apart by their bytes
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("Aa\nBB\n").append(i % 10).append('\n');
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = MappedFileShuffler.shuffle(write(content.toString()), "\n".getBytes(StandardCharsets.UTF_8), 0,
+                RandomSource.seeded(42L), out);
+
+        List<String> records = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n"));
+        assertEquals(12, written);
+        assertEquals(12, records.size());
+        assertEquals(12, new HashSet<String>(records).size());
+        assertTrue(records.contains("Aa"));
+        assertTrue(records.contains("BB"));
+        logger.debug("end duplicatesWrittenOnceTest()");
+    }
+
+    @Test
+    public void windowBoundaryTest() throws Exception {
+        logger.debug("begin windowBoundaryTest()");
+        // records of varying length put delimiters and records across the boundaries of the scan window, and every
+        // record is repeated in a later window, so a hash that is not carried across a boundary leaves duplicates
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 40000; i++) {
+            content.append("RECORD-").append(i % 5000).append("-");
+            for (int j = 0; j < i % 7; j++) {
+                content.append('x');
+            }
+            content.append("~~~");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int written = MappedFileShuffler.shuffle(write(content.toString()), DELIMITER, 0, RandomSource.seeded(42L), out);
+
+        List<String> records = Arrays.asList(new String(out.toByteArray(), StandardCharsets.UTF_8).split("~~~"));
+        assertEquals(new HashSet<String>(Arrays.asList(content.toString().split("~~~"))), new HashSet<String>(records));
+        assertEquals(records.size(), written);
+        assertEquals(records.size(), new HashSet<String>(records).size());
+        logger.debug("end windowBoundaryTest()");
+    }
+
+    @Test
+    public void heapExceededTest() throws Exception {
+        logger.debug("begin heapExceededTest()");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            content.append(i).append('\n');
+        }
+
+        try {
+            MappedFileShuffler.shuffle(write(content.toString()), "\n".getBytes(StandardCharsets.UTF_8), 0, RandomSource.seeded(42L),
+                    new ByteArrayOutputStream(), 1 << 20);
+            fail("100000 records should not fit in 1 MB of heap");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("use -memory"));
+        }
+        logger.debug("end heapExceededTest()");
+    }
+
+    @Test
+    public void emptyFileTest() throws Exception {
+        logger.debug("begin emptyFileTest()");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(0, MappedFileShuffler.shuffle(write(""), DELIMITER, 0, RandomSource.threadLocal(), out));
+        assertEquals(0, out.size());
+        logger.debug("end emptyFileTest()");
+    }
+
+    private Path write(String content) throws Exception {
+        Path input = temporaryFolder.newFile().toPath();
+        Files.write(input, content.getBytes(StandardCharsets.UTF_8));
+        return input;
+    }
+}
@@ -0,0 +1,102 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelShufflerTest {
+
+    final static Logger logger = LogManager.getLogger(ParallelShufflerTest.class);
+
+    private static ForkJoinPool forkJoinPool;
+
+    @BeforeClass
+    public static void createPool() {
+        forkJoinPool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        forkJoinPool.shutdown();
+    }
+
+    @Test
+    public void uniformityTest() {
+        logger.debug("begin uniformityTest()");
+        int trials = 120000;
+        RandomSource random = RandomSource.seeded(20170808L);
+
+        // a leaf size of one forces every permutation to be built by merges alone
+        Map<String, Integer> counts = new HashMap<String, Integer>();
+        for (int i = 0; i < trials; i++) {
+            Object[] items = { "A", "B", "C", "D" };
+            ParallelShuffler.shuffle(items, 1, random.split(), forkJoinPool);
+            String permutation = Arrays.toString(items);
+            Integer count = counts.get(permutation);
+            counts.put(permutation, count == null ? 1 : count + 1);
+        }
+
+        assertEquals(24, counts.size());
+
+        int[] observed = new int[counts.size()];
+        int i = 0;
+        for (Integer count : counts.values()) {
+            observed[i++] = count;
+        }
+        ChiSquare.assertBelowCritical(observed, trials / 24.0);
+        logger.debug("end uniformityTest()");
+    }
+
+    @Test
+    public void positionUniformityTest() {
+        logger.debug("begin positionUniformityTest()");
+        int listSize = 10;
+        int trials = 50000;
+        RandomSource random = RandomSource.seeded(20170909L);
+
+        // item 0 should land in every position equally often, across unevenly sized halves
+        int[] positions = new int[listSize];
+        for (int i = 0; i < trials; i++) {
+            Object[] items = new Object[listSize];
+            for (int j = 0; j < listSize; j++) {
+                items[j] = j;
+            }
+            ParallelShuffler.shuffle(items, 3, random.split(), forkJoinPool);
+            positions[Arrays.asList(items).indexOf(0)]++;
+        }
+
+        ChiSquare.assertBelowCritical(positions, (double) trials / listSize);
+        logger.debug("end positionUniformityTest()");
+    }
+
+    @Test
+    public void parallelRandomizeTest() {
+        logger.debug("begin parallelRandomizeTest()");
+        List<String> testList = new ArrayList<String>();
+        for (int i = 0; i < ParallelShuffler.LEAF_SIZE * 8; i++) {
+            testList.add("ITEM-" + (i % (ParallelShuffler.LEAF_SIZE * 4)));
+        }
+
+        RandomGenerator<String> firstGenerator = RandomGenerator.<String>builder().seed(42L).parallel(forkJoinPool).build();
+        RandomGenerator<String> secondGenerator = RandomGenerator.<String>builder().seed(42L).parallel(forkJoinPool).build();
+
+        List<String> resultList = firstGenerator.randomize(testList);
+
+        assertEquals(ParallelShuffler.LEAF_SIZE * 4, resultList.size());
+        assertEquals(new HashSet<String>(testList), new HashSet<String>(resultList));
+        assertEquals("The same seed should return the same result", resultList, secondGenerator.randomize(testList));
+        logger.debug("end parallelRandomizeTest()");
+    }
+}
@@ -0,0 +1,192 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreparedPopulationTest {
+
+    final static Logger logger = LogManager.getLogger(PreparedPopulationTest.class);
+    private static final int TRIALS = 100000;
+
+    @Test
+    public void shuffleTest() {
+        logger.debug("begin shuffleTest()");
+        List<Destination> testList = new ArrayList<Destination>();
+        for (int i = 0; i < 40; i++) {
+            testList.add(new Destination("DESTINATION-" + i % 25, i % 5 + 1));
+        }
+        PreparedPopulation<Destination> population = new RandomGenerator<Destination>().prepare(testList);
+
+        assertEquals(40, population.size());
+        assertEquals(25, population.distinctSize());
+        for (int i = 0; i < 10; i++) {
+            List<Destination> resultList = population.shuffle();
+            assertEquals(25, resultList.size());
+            assertEquals(25, namesOf(resultList).size());
+        }
+        logger.debug("end shuffleTest()");
+    }
+
+    @Test
+    public void sampleTest() {
+        logger.debug("begin sampleTest()");
+        List<Destination> testList = new ArrayList<Destination>();
+        for (int i = 0; i < 100; i++) {
+            testList.add(new Destination("DESTINATION-" + i, i % 5 + 1));
+        }
+        PreparedPopulation<Destination> population = new RandomGenerator<Destination>().prepare(testList);
+
+        assertEquals(5, population.sample(5).size());
+        assertEquals(100, population.sample(500).size());
+        assertEquals(10, population.sampleWeighted(10).size());
+
+        List<Destination> target = new ArrayList<Destination>();
+        assertEquals(100, population.sampleWeighted(100, target));
+        assertEquals(100, namesOf(target).size());
+        logger.debug("end sampleTest()");
+    }
+
+    @Test
+    public void unratedSampleTest() {
+        logger.debug("begin unratedSampleTest()");
+        List<String> testList = new ArrayList<String>();
+        for (int i = 0; i < 10; i++) {
+            testList.add("ITEM-" + i);
+        }
+        PreparedPopulation<String> population = new RandomGenerator<String>().prepare(testList);
+
+        // items without a rating field are only drawn by the unweighted draw methods
+        assertEquals(3, population.sample(3).size());
+        assertTrue(population.sampleWeighted(3).isEmpty());
+        logger.debug("end unratedSampleTest()");
+    }
+
+    @Test
+    public void uniformDistributionTest() {
+        logger.debug("begin uniformDistributionTest()");
+        List<Destination> testList = new ArrayList<Destination>();
+        for (int i = 0; i < 10; i++) {
+            testList.add(new Destination("DESTINATION-" + i, null));
+        }
+        PreparedPopulation<Destination> population = RandomGenerator.<Destination>builder().seed(20170505L).build()
+                .prepare(testList);
+
+        // the permutation carried over from earlier draws must not bias the next draw
+        int[] observed = new int[testList.size()];
+        for (int i = 0; i < TRIALS; i++) {
+            observed[testList.indexOf(population.sample(1).get(0))]++;
+        }
+
+        double[] expected = new double[testList.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = TRIALS / (double) expected.length;
+        }
+        ChiSquare.assertBelowCritical(observed, expected);
+        logger.debug("end uniformDistributionTest()");
+    }
+
+    @Test
+    public void weightedDistributionTest() {
+        logger.debug("begin weightedDistributionTest()");
+        List<Destination> testList = new ArrayList<Destination>();
+        for (int rating = 1; rating <= 5; rating++) {
+            testList.add(new Destination("DESTINATION-" + rating, rating));
+        }
+        PreparedPopulation<Destination> population = RandomGenerator.<Destination>builder().seed(20170606L).build()
+                .prepare(testList);
+
+        // the weights removed by every draw must be restored before the next one
+        int[] observed = new int[testList.size()];
+        List<Destination> target = new ArrayList<Destination>();
+        for (int i = 0; i < TRIALS; i++) {
+            target.clear();
+            population.sampleWeighted(3, target);
+            observed[testList.indexOf(target.get(0))]++;
+        }
+
+        // rating weights 1, 2, 4, 8 and 16
+        double[] expected = new double[testList.size()];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = TRIALS * RatingWeights.weightOf(i + 1) / 31.0;
+        }
+        ChiSquare.assertBelowCritical(observed, expected);
+        logger.debug("end weightedDistributionTest()");
+    }
+
+    @Test
+    public void splitOnceTest() {
+        logger.debug("begin splitOnceTest()");
+        List<Destination> testList = new ArrayList<Destination>();
+        for (int rating = 1; rating <= 5; rating++) {
+            testList.add(new Destination("DESTINATION-" + rating, rating));
+        }
+        RandomSource seeded = RandomSource.seeded(42L);
+        AtomicInteger splits = new AtomicInteger();
+        RandomSource countingSource = new RandomSource() {
+            @Override
+            public int nextInt(int bound) {
+                return seeded.nextInt(bound);
+            }
+
+            @Override
+            public double nextDouble() {
+                return seeded.nextDouble();
+            }
+
+            @Override
+            public RandomSource split() {
+                splits.incrementAndGet();
+                return seeded.split();
+            }
+        };
+        PreparedPopulation<Destination> population = RandomGenerator.<Destination>builder().randomSource(countingSource).build()
+                .prepare(testList);
+
+        // draws continue the sequence of the source split when the population was prepared
+        for (int i = 0; i < 100; i++) {
+            population.sample(2);
+            population.sampleWeighted(2);
+        }
+        assertEquals(1, splits.get());
+        logger.debug("end splitOnceTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMaxResultsTest() {
+        List<Destination> testList = new ArrayList<Destination>();
+        testList.add(new Destination("DESTINATION", 1));
+        new RandomGenerator<Destination>().prepare(testList).sample(0);
+    }
+
+    private static HashSet<String> namesOf(List<Destination> destinations) {
+        HashSet<String> names = new HashSet<String>();
+        for (Destination destination : destinations) {
+            names.add(destination.name);
+        }
+        return names;
+    }
+
+    private static class Destination {
+        private final String name;
+        private final Integer rating;
+
+        Destination(String name, Integer rating) {
+            this.name = name;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
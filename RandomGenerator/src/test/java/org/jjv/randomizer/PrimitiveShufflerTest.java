@@ -0,0 +1,83 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PrimitiveShufflerTest {
+
+    final static Logger logger = LogManager.getLogger(PrimitiveShufflerTest.class);
+
+    @Test
+    public void shuffleIntArrayTest() {
+        logger.debug("begin shuffleIntArrayTest()");
+        int[] values = IntStream.range(0, 1000).toArray();
+        RandomGenerator<Integer> randomGenerator = new RandomGenerator<Integer>();
+
+        randomGenerator.shuffle(values);
+
+        int[] sortedValues = values.clone();
+        Arrays.sort(sortedValues);
+        assertArrayEquals(IntStream.range(0, 1000).toArray(), sortedValues);
+        logger.debug("end shuffleIntArrayTest()");
+    }
+
+    @Test
+    public void randomizeLeavesSourceUnchangedTest() {
+        logger.debug("begin randomizeLeavesSourceUnchangedTest()");
+        long[] values = LongStream.range(0, 100).toArray();
+        RandomGenerator<Long> randomGenerator = new RandomGenerator<Long>();
+
+        long[] resultValues = randomGenerator.randomize(values, 10);
+        long[] allValues = randomGenerator.randomize(values);
+
+        assertArrayEquals(LongStream.range(0, 100).toArray(), values);
+        assertEquals(10, resultValues.length);
+        assertEquals(10, LongStream.of(resultValues).distinct().count());
+        assertEquals(100, allValues.length);
+        logger.debug("end randomizeLeavesSourceUnchangedTest()");
+    }
+
+    @Test
+    public void randomizeStreamTest() {
+        logger.debug("begin randomizeStreamTest()");
+        RandomGenerator<Double> randomGenerator = new RandomGenerator<Double>();
+
+        double[] resultValues = randomGenerator.randomize(DoubleStream.of(1.0, 2.0, 3.0, 4.0, 5.0), 3).toArray();
+
+        assertEquals(3, resultValues.length);
+        for (double resultValue : resultValues) {
+            assertTrue(resultValue >= 1.0 && resultValue <= 5.0);
+        }
+        assertEquals(5, randomGenerator.randomize(IntStream.range(0, 5)).count());
+        logger.debug("end randomizeStreamTest()");
+    }
+
+    @Test
+    public void partialShuffleUniformityTest() {
+        logger.debug("begin partialShuffleUniformityTest()");
+        int length = 20;
+        int trials = 100000;
+        RandomGenerator<Integer> randomGenerator = RandomGenerator.<Integer>builder().seed(20171010L).build();
+        int[] values = IntStream.range(0, length).toArray();
+
+        // the array is not reset between trials, since a partial shuffle of any arrangement is a uniform sample
+        int[] first = new int[length];
+        for (int i = 0; i < trials; i++) {
+            randomGenerator.shuffle(values, 2);
+            first[values[0]]++;
+        }
+
+        ChiSquare.assertBelowCritical(first, (double) trials / length);
+        logger.debug("end partialShuffleUniformityTest()");
+    }
+}
@@ -7,7 +7,11 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -113,6 +117,97 @@ public class RandomGeneratorTest {
         logger.debug("end fiveResultsTestWithRatingType()");
     }
 
+    @Test
+    public void standardTestWithRatingFunction() {
+        logger.debug("begin standardTestWithRatingFunction()");
+        List<TestObject> testList = new ArrayList<TestObject>();
+        generateTestData(testList, 25, true);
+
+        RandomGenerator<TestObject> randomGenerator = new RandomGenerator<TestObject>();
+
+        List<TestObject> resultList = randomGenerator.randomize(testList, TestObject::getRating);
+
+        for (TestObject resultObject : resultList) {
+            logger.debug("resultObject.getValue() = " + resultObject.getValue());
+        }
+
+        assertTrue(resultList.size() == 25);
+        assertTrue(resultList.containsAll(testList));
+        logger.debug("end standardTestWithRatingFunction()");
+    }
+
+    @Test
+    public void fiveResultsTestWithRatingFunction() {
+        logger.debug("begin fiveResultsTestWithRatingFunction()");
+        List<TestObject> testList = new ArrayList<TestObject>();
+        generateTestData(testList, 25, true);
+
+        RandomGenerator<TestObject> randomGenerator = new RandomGenerator<TestObject>();
+
+        List<TestObject> resultList = randomGenerator.randomize(testList, 5, TestObject::getRating);
+
+        for (TestObject resultObject : resultList) {
+            logger.debug("resultObject.getValue() = " + resultObject.getValue());
+        }
+
+        assertTrue(resultList.size() == 5);
+        logger.debug("end fiveResultsTestWithRatingFunction()");
+    }
+
+    @Test
+    public void standardTestWithSplittableRandomSource() {
+        logger.debug("begin standardTestWithSplittableRandomSource()");
+        List<TestObject> testList = new ArrayList<TestObject>();
+        generateTestData(testList, 25, true);
+
+        RandomGenerator<TestObject> randomGenerator = new RandomGenerator<TestObject>(RandomSource.splittable());
+
+        List<TestObject> resultList = randomGenerator.randomize(testList, true);
+
+        assertTrue(resultList.size() == 25);
+        assertTrue(resultList.containsAll(testList));
+        logger.debug("end standardTestWithSplittableRandomSource()");
+    }
+
+    @Test
+    public void seededTest() {
+        logger.debug("begin seededTest()");
+        List<TestObject> testList = new ArrayList<TestObject>();
+        generateTestData(testList, 25, true);
+
+        RandomGenerator<TestObject> firstGenerator = RandomGenerator.<TestObject>builder().seed(42L).build();
+        RandomGenerator<TestObject> secondGenerator = RandomGenerator.<TestObject>builder().seed(42L).build();
+
+        assertEquals(firstGenerator.randomize(testList), secondGenerator.randomize(testList));
+        assertEquals(firstGenerator.randomize(testList, 5, true), secondGenerator.randomize(testList, 5, true));
+        logger.debug("end seededTest()");
+    }
+
+    @Test
+    public void keyStrategyTest() {
+        logger.debug("begin keyStrategyTest()");
+        List<TestObject> testList = new ArrayList<TestObject>();
+        generateTestData(testList, 25, true);
+        generateTestData(testList, 25, true);
+        generateTestData(testList, 25, false);
+
+        RandomGenerator<TestObject> equalsGenerator = RandomGenerator.<TestObject>builder()
+                .keyStrategy(KeyStrategy.equalsAndHashCode()).build();
+        RandomGenerator<TestObject> valueGenerator = RandomGenerator.<TestObject>builder()
+                .keyStrategy(TestObject::getValue).build();
+
+        // the rated and unrated copies differ in their rating, but share the same value
+        assertEquals(50, equalsGenerator.randomize(testList).size());
+        assertEquals(25, valueGenerator.randomize(testList).size());
+        assertEquals(10, valueGenerator.randomize(testList, 10).size());
+        logger.debug("end keyStrategyTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullRandomSourceTest() {
+        new RandomGenerator<TestObject>(null);
+    }
+
     @Test
     public void oneResultTest() {
         logger.debug("begin oneResultTest()");
@@ -209,6 +304,123 @@ public class RandomGeneratorTest {
         logger.debug("end standardStringTestOnlySevel()");
     }
 
+    @Test
+    public void stringWithoutTrailingDelimiterTest() {
+        logger.debug("begin stringWithoutTrailingDelimiterTest()");
+        RandomGenerator<String> randomGenerator = new RandomGenerator<String>();
+
+        String resultString = randomGenerator.randomize("ONE~~~TWO~~~THREE~~~TWO", RandomGenerator.DEFAULT_DELIMITER);
+        logger.debug("resultString = " + resultString);
+
+        assertEquals("ONE~~~TWO~~~THREE~~~".length(), resultString.length());
+        assertTrue(resultString.contains("THREE~~~"));
+        assertEquals("", randomGenerator.randomize("", RandomGenerator.DEFAULT_DELIMITER));
+        logger.debug("end stringWithoutTrailingDelimiterTest()");
+    }
+
+    @Test
+    public void appendableTest() throws Exception {
+        logger.debug("begin appendableTest()");
+        RandomGenerator<String> firstGenerator = RandomGenerator.<String>builder().seed(42L).build();
+        RandomGenerator<String> secondGenerator = RandomGenerator.<String>builder().seed(42L).build();
+        String testString = generateTestStringData(RandomGenerator.DEFAULT_DELIMITER, 25);
+
+        StringBuilder sb = new StringBuilder();
+        firstGenerator.randomize(testString, RandomGenerator.DEFAULT_DELIMITER, 7, sb);
+
+        assertEquals(secondGenerator.randomize(testString, RandomGenerator.DEFAULT_DELIMITER, 7), sb.toString());
+        logger.debug("end appendableTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptySeparatorTest() {
+        new RandomGenerator<String>().randomize("ONE~~~TWO", "");
+    }
+
+    @Test
+    public void batchTest() {
+        logger.debug("begin batchTest()");
+        List<TestObject> firstList = new ArrayList<TestObject>();
+        generateTestData(firstList, 25, true);
+        List<TestObject> secondList = new ArrayList<TestObject>();
+        generateTestData(secondList, 10, false);
+
+        List<BatchRequest<TestObject>> requests = new ArrayList<BatchRequest<TestObject>>();
+        requests.add(BatchRequest.of(firstList));
+        requests.add(BatchRequest.of(secondList, FIVE));
+        requests.add(BatchRequest.of(firstList, THREE, true));
+        requests.add(BatchRequest.of(new ArrayList<TestObject>()));
+
+        List<List<TestObject>> resultLists = new RandomGenerator<TestObject>().randomizeAll(requests);
+
+        assertEquals(4, resultLists.size());
+        assertEquals(25, resultLists.get(0).size());
+        assertTrue(resultLists.get(0).containsAll(firstList));
+        assertEquals(5, resultLists.get(1).size());
+        assertTrue(secondList.containsAll(resultLists.get(1)));
+        assertEquals(3, resultLists.get(2).size());
+        assertTrue(firstList.containsAll(resultLists.get(2)));
+        assertTrue(resultLists.get(3).isEmpty());
+        logger.debug("end batchTest()");
+    }
+
+    @Test
+    public void seededBatchTest() {
+        logger.debug("begin seededBatchTest()");
+        List<BatchRequest<TestObject>> requests = new ArrayList<BatchRequest<TestObject>>();
+        for (int i = 0; i < 500; i++) {
+            List<TestObject> testList = new ArrayList<TestObject>();
+            generateTestData(testList, 5 + i % 20, i % 2 == 0);
+            requests.add(BatchRequest.of(testList, i % 4, i % 3 == 0));
+        }
+
+        RandomGenerator<TestObject> singleGenerator = RandomGenerator.<TestObject>builder().seed(42L).build();
+        List<List<TestObject>> singleLists = new ArrayList<List<TestObject>>();
+        for (BatchRequest<TestObject> request : requests) {
+            singleLists.add(singleGenerator.randomize(request.getList(), request.getMaxResults(), request.getUseRating()));
+        }
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<List<TestObject>> batchLists = RandomGenerator.<TestObject>builder().seed(42L).build()
+                    .randomizeAll(requests);
+            List<List<TestObject>> executorLists = RandomGenerator.<TestObject>builder().seed(42L).build()
+                    .randomizeAll(requests, executorService);
+
+            // the source of randomness is split once per request, in order, however the batch is run
+            assertEquals(singleLists, batchLists);
+            assertEquals(singleLists, executorLists);
+        } finally {
+            executorService.shutdown();
+        }
+        logger.debug("end seededBatchTest()");
+    }
+
+    @Test
+    public void randomIteratorTest() {
+        logger.debug("begin randomIteratorTest()");
+        List<TestObject> testList = new ArrayList<TestObject>();
+        generateTestData(testList, 25, true);
+        generateTestData(testList, 25, true);
+
+        RandomGenerator<TestObject> randomGenerator = new RandomGenerator<TestObject>();
+        List<TestObject> resultList = new ArrayList<TestObject>();
+        randomGenerator.randomIterator(testList, true).forEachRemaining(resultList::add);
+
+        assertEquals(25, resultList.size());
+        assertTrue(resultList.containsAll(testList));
+        assertEquals(5, randomGenerator.randomStream(testList).limit(5).count());
+        assertFalse(randomGenerator.randomIterator(null).hasNext());
+        logger.debug("end randomIteratorTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullBatchRequestTest() {
+        List<BatchRequest<TestObject>> requests = new ArrayList<BatchRequest<TestObject>>();
+        requests.add(null);
+        new RandomGenerator<TestObject>().randomizeAll(requests);
+    }
+
     @Data
     private static class TestObject {
         private String value;
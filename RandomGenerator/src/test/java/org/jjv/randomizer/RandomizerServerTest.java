@@ -0,0 +1,191 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RandomizerServerTest {
+
+    final static Logger logger = LogManager.getLogger(RandomizerServerTest.class);
+
+    private RandomizerServer server;
+
+    @Before
+    public void startServer() throws IOException {
+        server = start(new RandomizerServer(0, "test"));
+    }
+
+    private static RandomizerServer start(RandomizerServer randomizerServer) {
+        Thread serverThread = new Thread(() -> {
+            try {
+                randomizerServer.serve();
+            } catch (IOException e) {
+                logger.error(e.getMessage());
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+        return randomizerServer;
+    }
+
+    @After
+    public void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void handleTest() {
+        logger.debug("begin handleTest()");
+        RandomGenerator<String> randomGenerator = RandomGenerator.<String>builder().seed(42L).build();
+        String expected = randomGenerator.randomize("One\nTwo\nThree\nFour\nFive\n", "\n", 3);
+
+        assertEquals("OK\ttest", server.handle("ping"));
+        assertEquals("OK\t" + RandomizerServer.escape(expected), server.handle("randomize\tOne\\nTwo\\nThree\\nFour\\nFive\\n\t\\n\t3\t42"));
+        assertEquals(5, server.handle("randomize\tOne~~~Two~~~Three~~~Four~~~Five~~~").split("~~~").length);
+        assertTrue(server.handle("randomize").startsWith("ERROR\t"));
+        assertTrue(server.handle("randomize\tOne~~~Two~~~\t\tthree").startsWith("ERROR\t"));
+        assertTrue(server.handle("shuffle\tOne~~~Two~~~").startsWith("ERROR\t"));
+        logger.debug("end handleTest()");
+    }
+
+    @Test
+    public void escapeTest() {
+        logger.debug("begin escapeTest()");
+        String value = "a\tb\nc\rd\\n";
+        assertEquals("a\\tb\\nc\\rd\\\\n", RandomizerServer.escape(value));
+        assertEquals(value, Main.unescape(RandomizerServer.escape(value)));
+        logger.debug("end escapeTest()");
+    }
+
+    @Test
+    public void clientTest() throws Exception {
+        logger.debug("begin clientTest()");
+        RandomGenerator<String> randomGenerator = RandomGenerator.<String>builder().seed(7L).build();
+        String expected = randomGenerator.randomize("One\tTwo\tThree\t", "\t");
+
+        assertEquals(expected, RandomizerClient.randomize(server.getPort(), "One\tTwo\tThree\t", "\t", null, "7"));
+        logger.debug("end clientTest()");
+    }
+
+    @Test(expected = IOException.class)
+    public void clientErrorTest() throws Exception {
+        RandomizerClient.randomize(server.getPort(), "One~~~Two~~~", "~~~", null, "forty-two");
+    }
+
+    @Test
+    public void concurrentConnectionsTest() throws Exception {
+        logger.debug("begin concurrentConnectionsTest()");
+        ExecutorService executorService = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(this::sendRequests));
+            }
+            for (Future<Integer> future : futures) {
+                assertEquals(Integer.valueOf(100), future.get());
+            }
+        } finally {
+            executorService.shutdown();
+        }
+        logger.debug("end concurrentConnectionsTest()");
+    }
+
+    @Test
+    public void maxRequestLengthTest() throws Exception {
+        logger.debug("begin maxRequestLengthTest()");
+        try (RandomizerServer limitedServer = start(new RandomizerServer(0, "test", 1, 64, 10000));
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), limitedServer.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream out = socket.getOutputStream();
+            StringBuilder longRequest = new StringBuilder("randomize\t");
+            while (longRequest.length() < 100000) {
+                longRequest.append("One~~~");
+            }
+            out.write((longRequest + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("ERROR\trequest is longer than 64 characters", reader.readLine());
+
+            // the rest of the long request is discarded, and the connection keeps working
+            out.write("ping\r\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            assertEquals("OK\ttest", reader.readLine());
+        }
+        logger.debug("end maxRequestLengthTest()");
+    }
+
+    @Test
+    public void idleTimeoutTest() throws Exception {
+        logger.debug("begin idleTimeoutTest()");
+        try (RandomizerServer limitedServer = start(new RandomizerServer(0, "test", 1, 64, 200));
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), limitedServer.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            socket.setSoTimeout(10000);
+            // the server closes the idle connection, which frees its only thread for the next connection
+            assertNull(reader.readLine());
+            assertEquals("OK\ttest", RandomizerClient.send(limitedServer.getPort(), "ping"));
+        }
+        logger.debug("end idleTimeoutTest()");
+    }
+
+    @Test
+    public void busyServerTest() throws Exception {
+        logger.debug("begin busyServerTest()");
+        List<Socket> idleSockets = new ArrayList<Socket>();
+        try (RandomizerServer limitedServer = start(new RandomizerServer(0, "test", 1, 64, 10000))) {
+            // one connection holds the only thread and four more fill the queue
+            for (int i = 0; i < 5; i++) {
+                idleSockets.add(new Socket(InetAddress.getLoopbackAddress(), limitedServer.getPort()));
+            }
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), limitedServer.getPort());
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+                socket.setSoTimeout(10000);
+                assertTrue(reader.readLine().startsWith("ERROR\t"));
+                assertNull(reader.readLine());
+            }
+        } finally {
+            for (Socket idleSocket : idleSockets) {
+                idleSocket.close();
+            }
+        }
+        logger.debug("end busyServerTest()");
+    }
+
+    private int sendRequests() throws IOException {
+        // a single connection can send many requests before it quits
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))) {
+            OutputStream out = socket.getOutputStream();
+            int responses = 0;
+            for (int i = 0; i < 100; i++) {
+                out.write("randomize\tOne~~~Two~~~Three~~~Four~~~Five~~~\t\t2\n".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                String response = reader.readLine();
+                if (response.startsWith("OK\t") && response.split("~~~").length == 2) {
+                    responses++;
+                }
+            }
+            out.write("quit\n".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            return responses;
+        }
+    }
+}
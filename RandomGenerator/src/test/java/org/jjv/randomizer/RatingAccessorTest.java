@@ -0,0 +1,70 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class RatingAccessorTest {
+
+    final static Logger logger = LogManager.getLogger(RatingAccessorTest.class);
+
+    @Test
+    public void privateFieldTest() {
+        logger.debug("begin privateFieldTest()");
+        Function<Object, Integer> ratingAccessor = RatingAccessor.forClass(FieldRatedObject.class);
+
+        assertEquals(Integer.valueOf(4), ratingAccessor.apply(new FieldRatedObject(4)));
+        assertNull(ratingAccessor.apply(new FieldRatedObject(null)));
+        logger.debug("end privateFieldTest()");
+    }
+
+    @Test
+    public void accessorCachedPerClassTest() {
+        logger.debug("begin accessorCachedPerClassTest()");
+        assertSame(RatingAccessor.forClass(FieldRatedObject.class), RatingAccessor.forClass(FieldRatedObject.class));
+        logger.debug("end accessorCachedPerClassTest()");
+    }
+
+    @Test
+    public void ratedInterfaceTest() {
+        logger.debug("begin ratedInterfaceTest()");
+        Function<Object, Integer> ratingAccessor = RatingAccessor.forClass(InterfaceRatedObject.class);
+
+        assertEquals(Integer.valueOf(2), ratingAccessor.apply(new InterfaceRatedObject()));
+        logger.debug("end ratedInterfaceTest()");
+    }
+
+    @Test
+    public void missingRatingTest() {
+        logger.debug("begin missingRatingTest()");
+        assertNull(RatingAccessor.forClass(String.class));
+        assertNull(RatingAccessor.forClass(WrongTypeObject.class));
+        logger.debug("end missingRatingTest()");
+    }
+
+    private static class FieldRatedObject {
+        private String value = "FIELD";
+        private Integer rating;
+
+        FieldRatedObject(Integer rating) {
+            this.rating = rating;
+        }
+    }
+
+    private static class InterfaceRatedObject implements Rated {
+        @Override
+        public Integer getRating() {
+            return 2;
+        }
+    }
+
+    private static class WrongTypeObject {
+        private int rating = 3;
+    }
+}
@@ -0,0 +1,134 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReservoirSamplerTest {
+
+    final static Logger logger = LogManager.getLogger(ReservoirSamplerTest.class);
+    private static final int TRIALS = 100000;
+
+    @Test
+    public void sampleSizeTest() {
+        logger.debug("begin sampleSizeTest()");
+        RandomGenerator<Integer> randomGenerator = new RandomGenerator<Integer>();
+
+        List<Integer> resultList = randomGenerator.sample(IntStream.range(0, 1000000).boxed(), 10);
+
+        assertEquals(10, resultList.size());
+        assertEquals(10, resultList.stream().distinct().count());
+        logger.debug("end sampleSizeTest()");
+    }
+
+    @Test
+    public void shortInputTest() {
+        logger.debug("begin shortInputTest()");
+        RandomGenerator<String> randomGenerator = new RandomGenerator<String>();
+        List<String> testList = Arrays.asList("ONE", "TWO", "THREE");
+
+        List<String> resultList = randomGenerator.sample(testList.iterator(), 10);
+        List<String> spliteratorResultList = randomGenerator.sample(testList.spliterator(), 10, false);
+
+        assertEquals(3, resultList.size());
+        assertTrue(resultList.containsAll(testList));
+        assertEquals(3, spliteratorResultList.size());
+        logger.debug("end shortInputTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMaxResultsTest() {
+        new RandomGenerator<String>().sample(Arrays.asList("ONE", "TWO").iterator(), 0);
+    }
+
+    @Test
+    public void uniformInclusionTest() {
+        logger.debug("begin uniformInclusionTest()");
+        int listSize = 20;
+        int maxResults = 5;
+        RandomGenerator<Integer> randomGenerator = RandomGenerator.<Integer>builder().seed(20170606L).build();
+
+        int[] included = new int[listSize];
+        int[] first = new int[listSize];
+        for (int i = 0; i < TRIALS; i++) {
+            List<Integer> resultList = randomGenerator.sample(IntStream.range(0, listSize).boxed().iterator(), maxResults);
+            for (Integer result : resultList) {
+                included[result]++;
+            }
+            first[resultList.get(0)]++;
+        }
+
+        double[] expectedIncluded = new double[listSize];
+        double[] expectedFirst = new double[listSize];
+        Arrays.fill(expectedIncluded, (double) TRIALS * maxResults / listSize);
+        Arrays.fill(expectedFirst, (double) TRIALS / listSize);
+
+        ChiSquare.assertBelowCritical(included, expectedIncluded);
+        ChiSquare.assertBelowCritical(first, expectedFirst);
+        logger.debug("end uniformInclusionTest()");
+    }
+
+    @Test
+    public void weightedInclusionTest() {
+        logger.debug("begin weightedInclusionTest()");
+        List<RatedItem> items = new ArrayList<RatedItem>();
+        for (int rating = 1; rating <= 5; rating++) {
+            items.add(new RatedItem(rating - 1, rating));
+        }
+        // items without a rating field are never sampled
+        List<Object> input = new ArrayList<Object>(items);
+        for (int i = 0; i < 20; i++) {
+            input.add("UNRATED-" + i);
+        }
+        RandomGenerator<Object> randomGenerator = RandomGenerator.builder().seed(20170707L).build();
+
+        int[] included = new int[items.size()];
+        int[] first = new int[items.size()];
+        for (int i = 0; i < TRIALS; i++) {
+            List<Object> resultList = randomGenerator.sample(input.iterator(), 2, true);
+            for (Object result : resultList) {
+                included[((RatedItem) result).index]++;
+            }
+            first[((RatedItem) resultList.get(0)).index]++;
+        }
+
+        // weights 1, 2, 4, 8 and 16; P(i in sample of 2) = w(i) / W + sum over j != i of w(j) / W * w(i) / (W - w(j))
+        double total = 31;
+        double[] expectedIncluded = new double[items.size()];
+        double[] expectedFirst = new double[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            double weight = RatingWeights.weightOf(items.get(i).rating);
+            double probability = weight / total;
+            for (RatedItem other : items) {
+                double otherWeight = RatingWeights.weightOf(other.rating);
+                if (other != items.get(i)) {
+                    probability += otherWeight / total * weight / (total - otherWeight);
+                }
+            }
+            expectedIncluded[i] = TRIALS * probability;
+            expectedFirst[i] = TRIALS * weight / total;
+        }
+
+        ChiSquare.assertBelowCritical(included, expectedIncluded);
+        ChiSquare.assertBelowCritical(first, expectedFirst);
+        logger.debug("end weightedInclusionTest()");
+    }
+
+    private static class RatedItem {
+        private final int index;
+        private final Integer rating;
+
+        RatedItem(int index, Integer rating) {
+            this.index = index;
+            this.rating = rating;
+        }
+    }
+}
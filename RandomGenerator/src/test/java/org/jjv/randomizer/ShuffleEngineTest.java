@@ -0,0 +1,123 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ShuffleEngineTest {
+
+    final static Logger logger = LogManager.getLogger(ShuffleEngineTest.class);
+
+    @Test
+    public void allItemsReturnedTest() {
+        logger.debug("begin allItemsReturnedTest()");
+        List<String> testList = generateTestData(1000, 1);
+
+        List<String> resultList = ShuffleEngine.draw(testList, 0, Object::toString, RandomSource.threadLocal());
+
+        assertEquals(1000, resultList.size());
+        assertEquals(new HashSet<String>(testList), new HashSet<String>(resultList));
+        logger.debug("end allItemsReturnedTest()");
+    }
+
+    @Test
+    public void duplicatesReturnedOnceTest() {
+        logger.debug("begin duplicatesReturnedOnceTest()");
+        List<String> testList = generateTestData(100, 7);
+
+        List<String> resultList = ShuffleEngine.draw(testList, 0, Object::toString, RandomSource.threadLocal());
+
+        assertEquals(100, resultList.size());
+        assertEquals(100, new HashSet<String>(resultList).size());
+        logger.debug("end duplicatesReturnedOnceTest()");
+    }
+
+    @Test
+    public void maxResultsWithDuplicatesTest() {
+        logger.debug("begin maxResultsWithDuplicatesTest()");
+        List<String> testList = generateTestData(10, 50);
+
+        List<String> resultList = ShuffleEngine.draw(testList, 5, Object::toString, RandomSource.threadLocal());
+
+        assertEquals(5, resultList.size());
+        assertEquals(5, new HashSet<String>(resultList).size());
+        logger.debug("end maxResultsWithDuplicatesTest()");
+    }
+
+    @Test
+    public void sourceListUnchangedTest() {
+        logger.debug("begin sourceListUnchangedTest()");
+        List<String> testList = generateTestData(25, 1);
+        List<String> copyList = new ArrayList<String>(testList);
+
+        ShuffleEngine.draw(testList, 3, Object::toString, RandomSource.threadLocal());
+
+        assertTrue("Source list should not be modified", copyList.equals(testList));
+        logger.debug("end sourceListUnchangedTest()");
+    }
+
+    @Test
+    public void sparseDrawTest() {
+        logger.debug("begin sparseDrawTest()");
+        List<String> testList = generateTestData(100000, 1);
+
+        List<String> resultList = ShuffleEngine.draw(testList, 10, Object::toString, RandomSource.threadLocal());
+
+        assertEquals(10, resultList.size());
+        assertEquals(10, new HashSet<String>(resultList).size());
+        assertTrue(testList.containsAll(resultList));
+        logger.debug("end sparseDrawTest()");
+    }
+
+    @Test
+    public void sparseDrawWithDuplicatesTest() {
+        logger.debug("begin sparseDrawWithDuplicatesTest()");
+        List<String> testList = generateTestData(3, 1000);
+
+        List<String> resultList = ShuffleEngine.drawSparse(testList, 5, Object::toString, RandomSource.threadLocal());
+
+        assertEquals(3, resultList.size());
+        assertEquals(3, new HashSet<String>(resultList).size());
+        logger.debug("end sparseDrawWithDuplicatesTest()");
+    }
+
+    @Test
+    public void sparseDrawUniformityTest() {
+        logger.debug("begin sparseDrawUniformityTest()");
+        int listSize = 50;
+        int maxResults = 3;
+        int trials = 100000;
+        List<String> testList = generateTestData(listSize, 1);
+        RandomSource random = RandomSource.seeded(20170505L);
+
+        // every item should appear in the first three positions equally often
+        int[] counts = new int[listSize];
+        for (int i = 0; i < trials; i++) {
+            for (String result : ShuffleEngine.drawSparse(testList, maxResults, Object::toString, random)) {
+                counts[Integer.parseInt(result.substring("ITEM-".length()))]++;
+            }
+        }
+
+        ChiSquare.assertBelowCritical(counts, (double) trials * maxResults / listSize);
+        logger.debug("end sparseDrawUniformityTest()");
+    }
+
+    private static List<String> generateTestData(int distinctItems, int copies) {
+        List<String> testList = new ArrayList<String>();
+
+        for (int copy = 0; copy < copies; copy++) {
+            for (int i = 0; i < distinctItems; i++) {
+                testList.add("ITEM-" + i);
+            }
+        }
+
+        return testList;
+    }
+}
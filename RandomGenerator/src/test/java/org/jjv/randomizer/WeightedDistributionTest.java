@@ -0,0 +1,319 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * <p>Statistical tests proving that the Fenwick tree weighted engine selects items with the same
+ * probabilities as the original implementation, which copied each item 2^(rating - 1) times,
+ * picked a random copy and then removed every copy of the winner.</p>
+ * <p>Each test uses a fixed seed, and compares observed counts against the expected counts with a
+ * chi-square test at a significance level of 0.001.</p>
+ */
+public class WeightedDistributionTest {
+
+    final static Logger logger = LogManager.getLogger(WeightedDistributionTest.class);
+    private static final int TRIALS = 200000;
+
+    @Test
+    public void ratingWeightsTest() {
+        logger.debug("begin ratingWeightsTest()");
+        assertEquals(1, RatingWeights.weightOf(1));
+        assertEquals(2, RatingWeights.weightOf(2));
+        assertEquals(4, RatingWeights.weightOf(3));
+        assertEquals(8, RatingWeights.weightOf(4));
+        assertEquals(16, RatingWeights.weightOf(5));
+        assertEquals(1, RatingWeights.weightOf(0));
+        assertEquals(1, RatingWeights.weightOf(6));
+        assertEquals(1, RatingWeights.weightOf(null));
+        for (int rating = 0; rating <= 6; rating++) {
+            assertEquals(RatingWeights.weightOf(rating), RatingWeights.LEGACY.applyAsDouble(rating), 0);
+        }
+        assertEquals(1, RatingWeights.weightOf(null, RatingWeights.LEGACY), 0);
+        assertEquals(0, RatingWeights.weightOf(null, RatingWeights.LINEAR), 0);
+        logger.debug("end ratingWeightsTest()");
+    }
+
+    @Test
+    public void firstPickDistributionTest() {
+        logger.debug("begin firstPickDistributionTest()");
+        List<RatedItem> items = generateItems("ONE", 1, "TWO", 2, "THREE", 3, "FOUR", 4, "FIVE", 5);
+        double[] weights = weightsOf(items);
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20170101L));
+
+        Map<String, Integer> observed = new HashMap<String, Integer>();
+        for (int i = 0; i < TRIALS; i++) {
+            increment(observed, ShuffleEngine.drawWeighted(items, weights, 1, Object::toString, random).get(0).toString());
+        }
+
+        Map<String, Double> expected = new HashMap<String, Double>();
+        for (RatedItem item : items) {
+            expected.put(item.value, TRIALS * RatingWeights.weightOf(item.rating) / 31.0);
+        }
+
+        assertChiSquare(observed, expected);
+        logger.debug("end firstPickDistributionTest()");
+    }
+
+    @Test
+    public void fullPermutationDistributionTest() {
+        logger.debug("begin fullPermutationDistributionTest()");
+        List<RatedItem> items = generateItems("A", 1, "B", 3, "C", 5);
+        double[] weights = weightsOf(items);
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20170202L));
+
+        Map<String, Integer> observed = new HashMap<String, Integer>();
+        for (int i = 0; i < TRIALS; i++) {
+            increment(observed, ShuffleEngine.drawWeighted(items, weights, 0, Object::toString, random).toString());
+        }
+
+        // P(a, b, c) = w(a) / W * w(b) / (W - w(a))
+        Map<String, Double> expected = new HashMap<String, Double>();
+        for (RatedItem first : items) {
+            for (RatedItem second : items) {
+                for (RatedItem third : items) {
+                    if (first != second && second != third && first != third) {
+                        double total = 21.0;
+                        double w1 = RatingWeights.weightOf(first.rating);
+                        double w2 = RatingWeights.weightOf(second.rating);
+                        List<RatedItem> permutation = new ArrayList<RatedItem>();
+                        permutation.add(first);
+                        permutation.add(second);
+                        permutation.add(third);
+                        expected.put(permutation.toString(), TRIALS * (w1 / total) * (w2 / (total - w1)));
+                    }
+                }
+            }
+        }
+
+        assertChiSquare(observed, expected);
+        logger.debug("end fullPermutationDistributionTest()");
+    }
+
+    @Test
+    public void matchesLegacyReplicationTest() {
+        logger.debug("begin matchesLegacyReplicationTest()");
+        List<RatedItem> items = generateItems("W", 2, "X", 5, "Y", 1, "Z", 4);
+        double[] weights = weightsOf(items);
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20170303L));
+
+        Map<String, Integer> engineCounts = new HashMap<String, Integer>();
+        Map<String, Integer> legacyCounts = new HashMap<String, Integer>();
+        for (int i = 0; i < TRIALS; i++) {
+            increment(engineCounts, ShuffleEngine.drawWeighted(items, weights, 0, Object::toString, random).toString());
+            increment(legacyCounts, legacyDraw(items, random).toString());
+        }
+
+        // two-sample chi-square test of homogeneity across all 24 orderings
+        double statistic = 0;
+        int categories = 0;
+        for (String permutation : union(engineCounts, legacyCounts)) {
+            double engine = count(engineCounts, permutation);
+            double legacy = count(legacyCounts, permutation);
+            double pooled = (engine + legacy) / 2.0;
+            statistic += (engine - pooled) * (engine - pooled) / pooled + (legacy - pooled) * (legacy - pooled) / pooled;
+            categories++;
+        }
+
+        assertEquals(24, categories);
+        ChiSquare.assertBelowCritical(statistic, categories - 1);
+        logger.debug("end matchesLegacyReplicationTest()");
+    }
+
+    @Test
+    public void duplicateItemsShareWeightTest() {
+        logger.debug("begin duplicateItemsShareWeightTest()");
+        List<RatedItem> items = generateItems("SAME", 1, "SAME", 3, "OTHER", 3);
+        double[] weights = weightsOf(items);
+        RandomSource random = new SplittableRandomSource(new SplittableRandom(20170404L));
+
+        Map<String, Integer> observed = new HashMap<String, Integer>();
+        for (int i = 0; i < TRIALS; i++) {
+            List<RatedItem> result = ShuffleEngine.drawWeighted(items, weights, 0, Object::toString, random);
+            assertEquals(2, result.size());
+            RatedItem first = result.get(0);
+            increment(observed, first.value + "-" + first.rating);
+        }
+
+        // the duplicates are drawn first with a chance of (1 + 4) / 9, and the copy returned is
+        // proportional to its own weight, exactly as if the copies were expanded into one list
+        Map<String, Double> expected = new HashMap<String, Double>();
+        expected.put("SAME-1", TRIALS * 1 / 9.0);
+        expected.put("SAME-3", TRIALS * 4 / 9.0);
+        expected.put("OTHER-3", TRIALS * 4 / 9.0);
+
+        assertChiSquare(observed, expected);
+        logger.debug("end duplicateItemsShareWeightTest()");
+    }
+
+    @Test
+    public void continuousWeightsTest() {
+        logger.debug("begin continuousWeightsTest()");
+        List<RatedItem> items = generateItems("SMALL", 1, "MEDIUM", 2, "LARGE", 3, "NEVER", 4);
+        Map<String, Double> popularity = new HashMap<String, Double>();
+        popularity.put("SMALL", 0.25);
+        popularity.put("MEDIUM", 1250000.5);
+        popularity.put("LARGE", 2500000.0);
+        popularity.put("NEVER", 0.0);
+        RandomGenerator<RatedItem> randomGenerator = RandomGenerator.<RatedItem>builder().seed(20170808L).build();
+
+        Map<String, Integer> observed = new HashMap<String, Integer>();
+        for (int i = 0; i < TRIALS; i++) {
+            List<RatedItem> result = randomGenerator.randomizeWeighted(items, 0, item -> popularity.get(item.value));
+            assertEquals(3, result.size());
+            increment(observed, result.get(0).value);
+        }
+
+        // SMALL is expected about once in ten million draws, so only MEDIUM and LARGE are compared
+        observed.remove("SMALL");
+        Map<String, Double> expected = new HashMap<String, Double>();
+        expected.put("MEDIUM", TRIALS * 1250000.5 / 3750000.75);
+        expected.put("LARGE", TRIALS * 2500000.0 / 3750000.75);
+
+        assertChiSquare(observed, expected);
+        logger.debug("end continuousWeightsTest()");
+    }
+
+    @Test
+    public void ratingCurveTest() {
+        logger.debug("begin ratingCurveTest()");
+        List<RatedItem> items = generateItems("ONE", 1, "TWO", 2, "THREE", 3, "FOUR", 4, "FIVE", 5);
+        RandomGenerator<RatedItem> randomGenerator = RandomGenerator.<RatedItem>builder().seed(20170909L)
+                .ratingCurve(RatingWeights.LINEAR).build();
+
+        Map<String, Integer> observed = new HashMap<String, Integer>();
+        for (int i = 0; i < TRIALS; i++) {
+            increment(observed, randomGenerator.randomize(items, 1, true).get(0).value);
+        }
+
+        Map<String, Double> expected = new HashMap<String, Double>();
+        for (RatedItem item : items) {
+            expected.put(item.value, TRIALS * item.rating / 15.0);
+        }
+
+        assertChiSquare(observed, expected);
+        logger.debug("end ratingCurveTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeWeightTest() {
+        List<RatedItem> items = generateItems("ONE", 1, "TWO", 2);
+        new RandomGenerator<RatedItem>().randomizeWeighted(items, 0, item -> -1.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void infiniteCurveWeightTest() {
+        List<RatedItem> items = generateItems("ONE", 1, "TWO", 2);
+        RandomGenerator.<RatedItem>builder().ratingCurve(rating -> Double.POSITIVE_INFINITY).build()
+                .randomize(items, true);
+    }
+
+    /**
+     * Reference copy of the original algorithm: expand each item into 2^(rating - 1) copies, pick
+     * a random copy and remove every copy with the same toString() value.
+     */
+    private static List<RatedItem> legacyDraw(List<RatedItem> items, RandomSource random) {
+        List<RatedItem> expanded = new ArrayList<RatedItem>();
+        for (RatedItem item : items) {
+            for (int i = 0; i < RatingWeights.weightOf(item.rating); i++) {
+                expanded.add(item);
+            }
+        }
+
+        List<RatedItem> result = new ArrayList<RatedItem>();
+        while (expanded.size() > 0) {
+            RatedItem winner = expanded.get(random.nextInt(expanded.size()));
+            result.add(winner);
+
+            Iterator<RatedItem> iterator = expanded.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().toString().equals(winner.toString())) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static void assertChiSquare(Map<String, Integer> observed, Map<String, Double> expected) {
+        assertEquals("Unexpected outcome observed", expected.keySet(), observed.keySet());
+
+        int[] observedCounts = new int[expected.size()];
+        double[] expectedCounts = new double[expected.size()];
+        int i = 0;
+        for (Map.Entry<String, Double> entry : expected.entrySet()) {
+            observedCounts[i] = observed.get(entry.getKey());
+            expectedCounts[i] = entry.getValue();
+            i++;
+        }
+
+        ChiSquare.assertBelowCritical(observedCounts, expectedCounts);
+    }
+
+    private static List<RatedItem> generateItems(Object... valuesAndRatings) {
+        List<RatedItem> items = new ArrayList<RatedItem>();
+
+        for (int i = 0; i < valuesAndRatings.length; i += 2) {
+            items.add(new RatedItem((String) valuesAndRatings[i], (Integer) valuesAndRatings[i + 1]));
+        }
+
+        return items;
+    }
+
+    private static double[] weightsOf(List<RatedItem> items) {
+        double[] weights = new double[items.size()];
+
+        for (int i = 0; i < items.size(); i++) {
+            weights[i] = RatingWeights.weightOf(items.get(i).rating);
+        }
+
+        return weights;
+    }
+
+    private static List<String> union(Map<String, Integer> first, Map<String, Integer> second) {
+        List<String> keys = new ArrayList<String>(first.keySet());
+
+        for (String key : second.keySet()) {
+            if (!first.containsKey(key)) {
+                keys.add(key);
+            }
+        }
+
+        return keys;
+    }
+
+    private static void increment(Map<String, Integer> counts, String key) {
+        counts.put(key, count(counts, key) + 1);
+    }
+
+    private static int count(Map<String, Integer> counts, String key) {
+        Integer count = counts.get(key);
+        return count == null ? 0 : count;
+    }
+
+    private static class RatedItem {
+        private final String value;
+        private final Integer rating;
+
+        RatedItem(String value, Integer rating) {
+            this.value = value;
+            this.rating = rating;
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+}
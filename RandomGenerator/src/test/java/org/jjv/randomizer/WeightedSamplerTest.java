@@ -0,0 +1,113 @@
+package org.jjv.randomizer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WeightedSamplerTest {
+
+    final static Logger logger = LogManager.getLogger(WeightedSamplerTest.class);
+    private static final int TRIALS = 100000;
+
+    @Test
+    public void addRemoveTest() {
+        logger.debug("begin addRemoveTest()");
+        WeightedSampler<String> sampler = new WeightedSampler<String>();
+        assertNull(sampler.draw());
+
+        assertTrue(sampler.add("ONE", 1));
+        assertTrue(sampler.add("TWO", 2));
+        assertFalse(sampler.add("ONE", 5));
+        assertEquals(2, sampler.size());
+
+        assertTrue(sampler.remove("ONE"));
+        assertFalse(sampler.remove("ONE"));
+        assertFalse(sampler.contains("ONE"));
+        assertFalse(sampler.updateRating("ONE", 3));
+        assertTrue(sampler.updateRating("TWO", 3));
+        assertEquals(1, sampler.size());
+        assertEquals("TWO", sampler.draw());
+        logger.debug("end addRemoveTest()");
+    }
+
+    @Test
+    public void growTest() {
+        logger.debug("begin growTest()");
+        WeightedSampler<String> sampler = new WeightedSampler<String>();
+        for (int i = 0; i < 1000; i++) {
+            sampler.add("ITEM-" + i, i % 5 + 1);
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            sampler.remove("ITEM-" + i);
+        }
+        // the removed slots are reused before the sampler grows again
+        for (int i = 0; i < 100; i++) {
+            sampler.add("OTHER-" + i, 5);
+        }
+
+        List<String> resultList = sampler.draw(1000);
+
+        assertEquals(600, resultList.size());
+        assertEquals(600, new HashSet<String>(resultList).size());
+        for (String item : resultList) {
+            assertTrue(sampler.contains(item));
+        }
+        assertEquals(600, sampler.draw(1000).size());
+        logger.debug("end growTest()");
+    }
+
+    @Test
+    public void updatedDistributionTest() {
+        logger.debug("begin updatedDistributionTest()");
+        WeightedSampler<String> sampler = new WeightedSampler<String>(RandomSource.seeded(20170707L));
+        String[] items = { "A", "B", "C", "D", "E" };
+        for (int i = 0; i < items.length; i++) {
+            sampler.add(items[i], i + 1);
+        }
+        sampler.updateRating("E", 1);
+        sampler.remove("D");
+        sampler.add("F", 4);
+
+        // weights 1, 2, 4, 1 and 8
+        String[] expectedItems = { "A", "B", "C", "E", "F" };
+        double[] weights = { 1, 2, 4, 1, 8 };
+        int[] observed = new int[expectedItems.length];
+        for (int i = 0; i < TRIALS; i++) {
+            String item = i % 2 == 0 ? sampler.draw() : sampler.draw(2).get(0);
+            for (int j = 0; j < expectedItems.length; j++) {
+                if (expectedItems[j].equals(item)) {
+                    observed[j]++;
+                }
+            }
+        }
+
+        double[] expected = new double[expectedItems.length];
+        for (int i = 0; i < expectedItems.length; i++) {
+            expected[i] = TRIALS * weights[i] / 16.0;
+        }
+        assertEquals(TRIALS, sum(observed));
+        ChiSquare.assertBelowCritical(observed, expected);
+        logger.debug("end updatedDistributionTest()");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullItemTest() {
+        new WeightedSampler<String>().add(null, 1);
+    }
+
+    private static int sum(int[] values) {
+        int sum = 0;
+        for (int value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}